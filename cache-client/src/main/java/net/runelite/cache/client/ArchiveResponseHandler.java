@@ -24,25 +24,31 @@
  */
 package net.runelite.cache.client;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import net.runelite.protocol.api.update.ArchiveResponsePacket;
 
 public class ArchiveResponseHandler extends SimpleChannelInboundHandler<ArchiveResponsePacket>
 {
-	private final CacheClient client;
+	private final CacheConnection connection;
 
-	public ArchiveResponseHandler(CacheClient client)
+	ArchiveResponseHandler(CacheConnection connection)
 	{
-		this.client = client;
+		this.connection = connection;
 	}
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, ArchiveResponsePacket archiveResponse) throws Exception
 	{
-		client.onFileFinish(archiveResponse.getIndex(),
+		ByteBuf buffer = archiveResponse.getBuffer();
+		byte[] compressedData = new byte[buffer.readableBytes()];
+		buffer.getBytes(buffer.readerIndex(), compressedData);
+
+		// the packet, and its buffer, is released on return
+		connection.onFileFinish(archiveResponse.getIndex(),
 			archiveResponse.getArchive(),
-			archiveResponse.getData());
+			compressedData);
 	}
 
 }
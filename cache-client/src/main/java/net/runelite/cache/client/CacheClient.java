@@ -28,8 +28,6 @@ import com.google.common.base.Stopwatch;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import io.netty.channel.Channel;
-import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
@@ -37,12 +35,16 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
@@ -52,10 +54,8 @@ import net.runelite.cache.index.IndexData;
 import net.runelite.protocol.update.decoders.HandshakeResponseDecoder;
 import net.runelite.protocol.update.encoders.ArchiveRequestEncoder;
 import net.runelite.protocol.update.encoders.EncryptionEncoder;
-import net.runelite.protocol.api.update.ArchiveRequestPacket;
 import net.runelite.protocol.api.login.HandshakeResponseType;
 import net.runelite.cache.util.Crc32;
-import net.runelite.protocol.api.handshake.UpdateHandshakePacket;
 import net.runelite.protocol.handshake.UpdateHandshakeEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,20 +67,21 @@ public class CacheClient implements AutoCloseable
 	private static final String HOST = "oldschool1.runescape.com";
 	private static final int PORT = 43594;
 
-	private static final int MAX_REQUESTS = 19; // too many and the server closes the conncetion
+	// archives requested but not yet saved, bounds memory when saving falls behind
+	private static final int MAX_PENDING_ARCHIVES = 512;
 
 	private final Store store; // store cache will be written to
 	private final String host;
 	private final int clientRevision;
+	private final int connectionCount;
 	private DownloadWatcher watcher;
 
-	private ClientState state;
+	private final EventLoopGroup group;
+	private final ExecutorService worker; // verifies and saves downloaded archives
+	private final List<CacheConnection> connections = new ArrayList<>();
 
-	private final EventLoopGroup group = new NioEventLoopGroup(1);
-	private Channel channel;
-
-	private CompletableFuture<HandshakeResponseType> handshakeFuture;
-	private final Queue<PendingFileRequest> requests = new ArrayDeque<>();
+	private final Queue<PendingFileRequest> requests = new ConcurrentLinkedQueue<>();
+	private final Semaphore pendingArchives = new Semaphore(MAX_PENDING_ARCHIVES);
 
 	public CacheClient(Store store, int clientRevision)
 	{
@@ -89,9 +90,29 @@ public class CacheClient implements AutoCloseable
 
 	public CacheClient(Store store, String host, int clientRevision)
 	{
+		this(store, host, clientRevision, 1);
+	}
+
+	/**
+	 * @param store store cache will be written to
+	 * @param host update server host
+	 * @param clientRevision client revision to handshake with
+	 * @param connectionCount number of connections to download over
+	 */
+	public CacheClient(Store store, String host, int clientRevision, int connectionCount)
+	{
+		if (connectionCount < 1)
+		{
+			throw new IllegalArgumentException("connectionCount must be at least 1");
+		}
+
 		this.store = store;
 		this.host = host;
 		this.clientRevision = clientRevision;
+		this.connectionCount = connectionCount;
+		this.group = new NioEventLoopGroup(Math.min(connectionCount, Runtime.getRuntime().availableProcessors()));
+		this.worker = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+			new DefaultThreadFactory("cache-client-worker", true));
 	}
 
 	public CacheClient(Store store, int clientRevision, DownloadWatcher watcher)
@@ -105,8 +126,13 @@ public class CacheClient implements AutoCloseable
 		Bootstrap b = new Bootstrap();
 		b.group(group)
 			.channel(NioSocketChannel.class)
-			.option(ChannelOption.TCP_NODELAY, true)
-			.handler(new ChannelInitializer<SocketChannel>()
+			.option(ChannelOption.TCP_NODELAY, true);
+
+		for (int i = 0; i < connectionCount; ++i)
+		{
+			CacheConnection connection = new CacheConnection(this);
+
+			b.handler(new ChannelInitializer<SocketChannel>()
 			{
 				@Override
 				public void initChannel(SocketChannel ch) throws Exception
@@ -117,9 +143,9 @@ public class CacheClient implements AutoCloseable
 					p.addLast("decoder", new HandshakeResponseDecoder());
 
 					p.addLast(
-						new CacheClientHandler(),
-						new HandshakeResponseHandler(CacheClient.this),
-						new ArchiveResponseHandler(CacheClient.this)
+						new CacheClientHandler(connection),
+						new HandshakeResponseHandler(connection),
+						new ArchiveResponseHandler(connection)
 					);
 
 					p.addLast(
@@ -130,33 +156,52 @@ public class CacheClient implements AutoCloseable
 				}
 			});
 
-		// Start the client.
-		ChannelFuture f = b.connect(host, PORT).syncUninterruptibly();
-		channel = f.channel();
+			// Start the client.
+			connection.setChannel(b.connect(host, PORT).syncUninterruptibly().channel());
+			connections.add(connection);
+		}
 	}
 
+	/**
+	 * Handshake on every connection
+	 *
+	 * @return a future completed with the first non-ok response, or
+	 * RESPONSE_OK once every connection has been accepted
+	 */
 	public CompletableFuture<HandshakeResponseType> handshake()
 	{
-		UpdateHandshakePacket handshakePacket = new UpdateHandshakePacket();
-		handshakePacket.setRevision(getClientRevision());
-
-		state = ClientState.HANDSHAKING;
-
-		assert handshakeFuture == null;
-		handshakeFuture = new CompletableFuture<>();
-
-		channel.writeAndFlush(handshakePacket);
+		List<CompletableFuture<HandshakeResponseType>> futures = new ArrayList<>(connections.size());
+		for (CacheConnection connection : connections)
+		{
+			futures.add(connection.handshake(clientRevision));
+		}
 
-		logger.info("Sent handshake with revision {}", handshakePacket.getRevision());
+		logger.info("Sent handshake with revision {} on {} connections", clientRevision, connections.size());
 
-		return handshakeFuture;
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+			.thenApply(v ->
+			{
+				for (CompletableFuture<HandshakeResponseType> future : futures)
+				{
+					HandshakeResponseType response = future.join();
+					if (response != HandshakeResponseType.RESPONSE_OK)
+					{
+						return response;
+					}
+				}
+				return HandshakeResponseType.RESPONSE_OK;
+			});
 	}
 
 	@Override
 	public void close()
 	{
-		channel.close().syncUninterruptibly();
+		for (CacheConnection connection : connections)
+		{
+			connection.close();
+		}
 		group.shutdownGracefully();
+		worker.shutdown();
 	}
 
 	public int getClientRevision()
@@ -164,26 +209,29 @@ public class CacheClient implements AutoCloseable
 		return clientRevision;
 	}
 
+	/**
+	 * Get the state of the client. The client is only connected
+	 * once all of its connections are.
+	 */
 	public ClientState getState()
 	{
+		ClientState state = null;
+		for (CacheConnection connection : connections)
+		{
+			state = connection.getState();
+			if (state != ClientState.CONNECTED)
+			{
+				return state;
+			}
+		}
 		return state;
 	}
 
-	void setState(ClientState state)
-	{
-		this.state = state;
-	}
-
-	CompletableFuture<HandshakeResponseType> getHandshakeFuture()
-	{
-		return handshakeFuture;
-	}
-
 	public List<IndexInfo> requestIndexes() throws IOException
 	{
 		logger.info("Requesting indexes");
 
-		FileResult result = requestFile(255, 255, true).join();
+		FileResult result = requestFile(255, 255).join();
 		result.decompress(null);
 
 		ByteBuf buffer = Unpooled.wrappedBuffer(result.getContents());
@@ -205,6 +253,17 @@ public class CacheClient implements AutoCloseable
 		Stopwatch stopwatch = Stopwatch.createStarted();
 
 		List<IndexInfo> indexes = requestIndexes();
+
+		// request every index up front, they are processed in order as they arrive
+		List<CompletableFuture<FileResult>> indexFutures = new ArrayList<>(indexes.size());
+		for (IndexInfo indexInfo : indexes)
+		{
+			indexFutures.add(queueRequest(255, indexInfo.getId()));
+		}
+		flush();
+
+		List<CompletableFuture<Void>> saves = new ArrayList<>();
+
 		for (IndexInfo indexInfo : indexes)
 		{
 			int i = indexInfo.getId();
@@ -242,7 +301,7 @@ public class CacheClient implements AutoCloseable
 
 			logger.info("Downloading index {}", i);
 
-			FileResult indexFileResult = requestFile(255, i, true).join();
+			FileResult indexFileResult = indexFutures.get(i).join();
 			indexFileResult.decompress(null);
 
 			logger.info("Downloaded index {}", i);
@@ -314,146 +373,119 @@ public class CacheClient implements AutoCloseable
 				// Add files
 				archive.setFileData(ad.getFiles());
 
-				CompletableFuture<FileResult> future = requestFile(index.getId(), ad.getId(), false);
-				future.handle((fr, ex) ->
+				if (!pendingArchives.tryAcquire())
 				{
-					byte[] data = fr.getCompressedData();
-
-					Crc32 crc32 = new Crc32();
-					crc32.update(data, 0, data.length);
-					int hash = crc32.getHash();
-
-					if (hash != archive.getCrc())
-					{
-						logger.warn("crc mismatch on downloaded archive {}/{}: {} != {}",
-							archive.getIndex().getId(), archive.getArchiveId(),
-							hash, archive.getCrc());
-						throw new RuntimeException("crc mismatch");
-					}
+					// send what is queued, and wait for saving to catch up
+					flush();
+					pendingArchives.acquireUninterruptibly();
+				}
 
-					if (watcher != null)
-					{
-						watcher.downloadComplete(archive, data);
-					}
-					else
+				CompletableFuture<FileResult> future = queueRequest(index.getId(), ad.getId());
+				saves.add(future.thenAcceptAsync(fr -> saveArchive(archive, fr.getCompressedData()), worker)
+					.exceptionally(ex ->
 					{
-						try
-						{
-							Storage storage = store.getStorage();
-							storage.saveArchive(archive, data);
-						}
-						catch (IOException ex1)
-						{
-							logger.warn("unable to save archive data", ex1);
-						}
-					}
-					return null;
-				});
+						logger.warn("unable to download archive {}/{}",
+							archive.getIndex().getId(), archive.getArchiveId(), ex);
+						return null;
+					})
+					.whenComplete((v, ex) -> pendingArchives.release()));
 			}
-		}
 
-		// flush any pending requests
-		channel.flush();
-
-		while (!requests.isEmpty())
-		{
-			// wait for pending requests
-			synchronized (this)
-			{
-				try
-				{
-					wait();
-				}
-				catch (InterruptedException ex)
-				{
-					logger.warn(null, ex);
-				}
-			}
+			// start on this index's archives while the remaining indexes are processed
+			flush();
 		}
 
+		// wait for pending requests
+		CompletableFuture.allOf(saves.toArray(new CompletableFuture[saves.size()])).join();
+
 		stopwatch.stop();
 		logger.info("Download completed in {}", stopwatch);
 	}
 
-	private synchronized CompletableFuture<FileResult> requestFile(int index, int fileId, boolean flush)
+	private void saveArchive(Archive archive, byte[] data)
 	{
-		if (state != ClientState.CONNECTED)
+		Crc32 crc32 = new Crc32();
+		crc32.update(data, 0, data.length);
+		int hash = crc32.getHash();
+
+		if (hash != archive.getCrc())
 		{
-			throw new IllegalStateException("Can't request files until connected!");
+			logger.warn("crc mismatch on downloaded archive {}/{}: {} != {}",
+				archive.getIndex().getId(), archive.getArchiveId(),
+				hash, archive.getCrc());
+			return;
 		}
 
-		if (!flush)
+		if (watcher != null)
 		{
-			while (requests.size() >= MAX_REQUESTS)
+			watcher.downloadComplete(archive, data);
+		}
+		else
+		{
+			try
 			{
-				channel.flush();
-
-				try
-				{
-					wait();
-				}
-				catch (InterruptedException ex)
-				{
-					logger.warn("interrupted while waiting for requests", ex);
-				}
+				Storage storage = store.getStorage();
+				storage.saveArchive(archive, data);
+			}
+			catch (IOException ex1)
+			{
+				logger.warn("unable to save archive data", ex1);
 			}
 		}
+	}
 
-		ArchiveRequestPacket archiveRequest = new ArchiveRequestPacket();
-		archiveRequest.setPriority(false);
-		archiveRequest.setIndex(index);
-		archiveRequest.setArchive(fileId);
-
-		CompletableFuture<FileResult> future = new CompletableFuture<>();
-		PendingFileRequest pf = new PendingFileRequest(index,
-			fileId, future);
-
-		logger.trace("Sending request for {}/{}", index, fileId);
-
-		requests.add(pf);
+	private CompletableFuture<FileResult> requestFile(int index, int fileId)
+	{
+		CompletableFuture<FileResult> future = queueRequest(index, fileId);
+		flush();
+		return future;
+	}
 
-		if (!flush)
-		{
-			channel.write(archiveRequest);
-		}
-		else
+	/**
+	 * Queue a request without sending it. Queued requests are sent
+	 * when a connection has room after a response, or on flush().
+	 */
+	private CompletableFuture<FileResult> queueRequest(int index, int fileId)
+	{
+		if (getState() != ClientState.CONNECTED)
 		{
-			channel.writeAndFlush(archiveRequest);
+			throw new IllegalStateException("Can't request files until connected!");
 		}
 
+		CompletableFuture<FileResult> future = new CompletableFuture<>();
+		requests.add(new PendingFileRequest(index, fileId, future));
 		return future;
 	}
 
-	private PendingFileRequest findRequest(int index, int file)
+	private void flush()
 	{
-		for (PendingFileRequest pr : requests)
+		for (CacheConnection connection : connections)
 		{
-			if (pr.getIndex() == index && pr.getArchive() == file)
-			{
-				return pr;
-			}
+			connection.pump();
 		}
-		return null;
 	}
 
-	protected synchronized void onFileFinish(int index, int file, byte[] compressedData)
+	PendingFileRequest nextRequest()
 	{
-		PendingFileRequest pr = findRequest(index, file);
+		return requests.poll();
+	}
 
-		if (pr == null)
+	void onConnectionClosed()
+	{
+		for (CacheConnection connection : connections)
 		{
-			logger.warn("File download {}/{} with no pending request", index, file);
-			return;
+			if (connection.isActive())
+			{
+				return;
+			}
 		}
 
-		requests.remove(pr);
-
-		notify();
-
-		FileResult result = new FileResult(index, file, compressedData);
-
-		logger.debug("File download finished for index {} file {}, length {}", index, file, compressedData.length);
-
-		pr.getFuture().complete(result);
+		// nothing is left to send the queued requests
+		IOException ex = new IOException("all connections are closed");
+		PendingFileRequest pr;
+		while ((pr = requests.poll()) != null)
+		{
+			pr.getFuture().completeExceptionally(ex);
+		}
 	}
 }
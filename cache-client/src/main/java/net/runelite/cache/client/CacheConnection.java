@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.client;
+
+import io.netty.channel.Channel;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import net.runelite.protocol.api.handshake.UpdateHandshakePacket;
+import net.runelite.protocol.api.login.HandshakeResponseType;
+import net.runelite.protocol.api.update.ArchiveRequestPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single connection to the update server. Requests are pulled from the
+ * client's shared queue whenever this connection has room in its window,
+ * and all request state is only touched from the channel's event loop.
+ */
+class CacheConnection
+{
+	private static final Logger logger = LoggerFactory.getLogger(CacheConnection.class);
+
+	private static final int MAX_REQUESTS = 19; // too many and the server closes the conncetion
+
+	private final CacheClient client;
+	private final IntObjectMap<PendingFileRequest> pending = new IntObjectHashMap<>(MAX_REQUESTS);
+
+	private Channel channel;
+	private volatile ClientState state;
+	private CompletableFuture<HandshakeResponseType> handshakeFuture;
+
+	CacheConnection(CacheClient client)
+	{
+		this.client = client;
+	}
+
+	CompletableFuture<HandshakeResponseType> handshake(int revision)
+	{
+		UpdateHandshakePacket handshakePacket = new UpdateHandshakePacket();
+		handshakePacket.setRevision(revision);
+
+		state = ClientState.HANDSHAKING;
+
+		assert handshakeFuture == null;
+		handshakeFuture = new CompletableFuture<>();
+
+		channel.writeAndFlush(handshakePacket);
+
+		return handshakeFuture;
+	}
+
+	/**
+	 * Fill this connection's request window from the client's queue
+	 */
+	void pump()
+	{
+		if (!channel.eventLoop().inEventLoop())
+		{
+			channel.eventLoop().execute(this::pump);
+			return;
+		}
+
+		if (state != ClientState.CONNECTED || !channel.isActive())
+		{
+			return;
+		}
+
+		boolean written = false;
+		PendingFileRequest pr;
+
+		while (pending.size() < MAX_REQUESTS && (pr = client.nextRequest()) != null)
+		{
+			ArchiveRequestPacket archiveRequest = new ArchiveRequestPacket();
+			archiveRequest.setPriority(false);
+			archiveRequest.setIndex(pr.getIndex());
+			archiveRequest.setArchive(pr.getArchive());
+
+			logger.trace("Sending request for {}/{}", pr.getIndex(), pr.getArchive());
+
+			pending.put(key(pr.getIndex(), pr.getArchive()), pr);
+			channel.write(archiveRequest);
+			written = true;
+		}
+
+		if (written)
+		{
+			channel.flush();
+		}
+	}
+
+	void onFileFinish(int index, int file, byte[] compressedData)
+	{
+		PendingFileRequest pr = pending.remove(key(index, file));
+
+		if (pr == null)
+		{
+			logger.warn("File download {}/{} with no pending request", index, file);
+			return;
+		}
+
+		FileResult result = new FileResult(index, file, compressedData);
+
+		logger.debug("File download finished for index {} file {}, length {}", index, file, compressedData.length);
+
+		pr.getFuture().complete(result);
+
+		pump();
+	}
+
+	void onClose()
+	{
+		if (!pending.isEmpty())
+		{
+			logger.warn("Connection closed with {} pending requests", pending.size());
+
+			IOException ex = new IOException("connection closed");
+			for (PendingFileRequest pr : pending.values())
+			{
+				pr.getFuture().completeExceptionally(ex);
+			}
+			pending.clear();
+		}
+
+		client.onConnectionClosed();
+	}
+
+	void close()
+	{
+		channel.close().syncUninterruptibly();
+	}
+
+	boolean isActive()
+	{
+		return channel.isActive();
+	}
+
+	void setChannel(Channel channel)
+	{
+		this.channel = channel;
+	}
+
+	ClientState getState()
+	{
+		return state;
+	}
+
+	void setState(ClientState state)
+	{
+		this.state = state;
+	}
+
+	CompletableFuture<HandshakeResponseType> getHandshakeFuture()
+	{
+		return handshakeFuture;
+	}
+
+	private static int key(int index, int archive)
+	{
+		return index << 16 | archive;
+	}
+}
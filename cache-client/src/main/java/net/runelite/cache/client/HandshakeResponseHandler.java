@@ -40,11 +40,11 @@ public class HandshakeResponseHandler extends SimpleChannelInboundHandler<Handsh
 {
 	private static final Logger logger = LoggerFactory.getLogger(HandshakeResponseHandler.class);
 
-	private final CacheClient client;
+	private final CacheConnection connection;
 
-	public HandshakeResponseHandler(CacheClient client)
+	HandshakeResponseHandler(CacheConnection connection)
 	{
-		this.client = client;
+		this.connection = connection;
 	}
 
 	@Override
@@ -52,7 +52,7 @@ public class HandshakeResponseHandler extends SimpleChannelInboundHandler<Handsh
 	{
 		Channel channel = ctx.channel();
 		ChannelPipeline p = ctx.pipeline();
-		CompletableFuture<HandshakeResponseType> handshakeFuture = client.getHandshakeFuture();
+		CompletableFuture<HandshakeResponseType> handshakeFuture = connection.getHandshakeFuture();
 
 		assert handshakeFuture != null;
 
@@ -69,13 +69,16 @@ public class HandshakeResponseHandler extends SimpleChannelInboundHandler<Handsh
 		encryptionPacket.setKey((byte) 0);
 		channel.writeAndFlush(encryptionPacket);
 
-		client.setState(ClientState.CONNECTED);
+		connection.setState(ClientState.CONNECTED);
 
 		logger.info("Client is now connected!");
 
 		p.replace("decoder", "decoder", new ArchiveResponseDecoder());
 
 		handshakeFuture.complete(handshakeResponse.getResponse());
+
+		// send any requests queued before the handshake completed
+		connection.pump();
 	}
 
 }
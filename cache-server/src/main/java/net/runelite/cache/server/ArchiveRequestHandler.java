@@ -26,12 +26,17 @@ package net.runelite.cache.server;
 
 import com.google.common.primitives.Ints;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
@@ -39,88 +44,213 @@ import net.runelite.cache.fs.jagex.CompressionType;
 import net.runelite.cache.fs.jagex.DiskStorage;
 import net.runelite.protocol.api.update.ArchiveRequestPacket;
 import net.runelite.protocol.api.update.ArchiveResponsePacket;
+import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Serves archive requests for a single client. Requests are queued by
+ * priority, with urgent requests (from logged in clients) always served
+ * before prefetch requests. Archives are read from disk on the io executor
+ * so a slow read doesn't stall the event loop, and reads are only issued
+ * while the channel is writable. If the server has a response cache, framed
+ * responses are served from it without touching the disk.
+ */
 public class ArchiveRequestHandler extends SimpleChannelInboundHandler<ArchiveRequestPacket>
 {
 	private static final Logger logger = LoggerFactory.getLogger(ArchiveRequestHandler.class);
 
+	/**
+	 * Maximum number of archive reads in flight for one client
+	 */
+	private static final int MAX_PENDING_READS = 4;
+
 	private final Store store;
+	private final Executor ioExecutor;
+	private final ArchiveResponseCache responseCache;
+	private final byte[] indexTable;
 
-	public ArchiveRequestHandler(Store store)
+	// these are only accessed from the channel's event loop
+	private final Deque<ArchiveRequestPacket> urgentRequests = new ArrayDeque<>();
+	private final Deque<ArchiveRequestPacket> prefetchRequests = new ArrayDeque<>();
+	private int pendingReads;
+
+	public ArchiveRequestHandler(CacheServer server)
 	{
-		this.store = store;
+		this.store = server.getStore();
+		this.ioExecutor = server.getIoExecutor();
+		this.responseCache = server.getResponseCache();
+		this.indexTable = server.getIndexTable();
 	}
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, ArchiveRequestPacket archiveRequest) throws Exception
 	{
-		if (archiveRequest.getIndex() == 255)
+		logger.debug("Client {} requests {}", ctx.channel().remoteAddress(), archiveRequest);
+
+		if (archiveRequest.isPriority())
 		{
-			handleRequest255(ctx, archiveRequest.getIndex(),
-				archiveRequest.getArchive());
+			urgentRequests.add(archiveRequest);
 		}
 		else
 		{
-			handleRequest(ctx, archiveRequest.getIndex(),
-				archiveRequest.getArchive());
+			prefetchRequests.add(archiveRequest);
 		}
+
+		processRequests(ctx);
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception
+	{
+		processRequests(ctx);
+		ctx.fireChannelWritabilityChanged();
 	}
 
-	private void handleRequest255(ChannelHandlerContext ctx, int index, int archiveId) throws IOException
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception
 	{
-		logger.info("Client {} requests 255: index {}, archive {}", ctx.channel().remoteAddress(), index, archiveId);
+		urgentRequests.clear();
+		prefetchRequests.clear();
+		ctx.fireChannelInactive();
+	}
 
-		byte[] compressed;
-		if (archiveId == 255)
+	private void processRequests(ChannelHandlerContext ctx)
+	{
+		while (pendingReads < MAX_PENDING_READS && ctx.channel().isActive() && ctx.channel().isWritable())
 		{
-			// index 255 data, for each index:
-			// 4 byte crc
-			// 4 byte revision
-			ByteBuf buffer = ctx.alloc().heapBuffer(store.getIndexes().size() * 8);
-			for (Index i : store.getIndexes())
+			ArchiveRequestPacket request = urgentRequests.poll();
+			if (request == null)
+			{
+				request = prefetchRequests.poll();
+				if (request == null)
+				{
+					return;
+				}
+			}
+
+			final int index = request.getIndex();
+			final int archiveId = request.getArchive();
+
+			if (responseCache != null)
 			{
-				buffer.writeInt(i.getCrc());
-				buffer.writeInt(i.getRevision());
+				ByteBuf cached = responseCache.get(index, archiveId);
+				if (cached != null)
+				{
+					ctx.writeAndFlush(cached);
+					continue;
+				}
 			}
 
-			compressed = compress(CompressionType.NONE, Arrays.copyOf(buffer.array(), buffer.readableBytes()));
-			buffer.release();
+			++pendingReads;
+			CompletableFuture.supplyAsync(() -> load(index, archiveId), ioExecutor)
+				.whenCompleteAsync((response, ex) ->
+				{
+					--pendingReads;
+
+					if (ex != null)
+					{
+						logger.warn("Error loading archive {}/{}", index, archiveId, ex);
+					}
+					else if (response == null)
+					{
+						logger.warn("Missing archive {}/{}", index, archiveId);
+						// is it possible to notify the client of an error with this?
+					}
+					else
+					{
+						ctx.writeAndFlush(response);
+					}
+
+					processRequests(ctx);
+				}, ctx.executor());
+		}
+	}
+
+	/**
+	 * Load an archive and build the response for it
+	 *
+	 * @return a framed ByteBuf if the response cache is enabled, otherwise
+	 * an ArchiveResponsePacket, or null if the archive doesn't exist
+	 */
+	private Object load(int index, int archiveId)
+	{
+		byte[] data;
+		try
+		{
+			if (index == 255)
+			{
+				data = loadIndex(archiveId);
+			}
+			else
+			{
+				data = loadArchive(index, archiveId);
+			}
+		}
+		catch (IOException ex)
+		{
+			throw new CompletionException(ex);
+		}
+
+		if (data == null)
+		{
+			return null;
+		}
+
+		if (responseCache == null)
+		{
+			ArchiveResponsePacket response = new ArchiveResponsePacket();
+			response.setIndex(index);
+			response.setArchive(archiveId);
+			response.setData(data);
+			return response;
+		}
+
+		// frame the response here, off of the event loop, and keep it
+		// off heap as it is long lived
+		ByteBuf response = Unpooled.directBuffer(ArchiveResponseEncoder.encodedSize(data.length));
+		ArchiveResponseEncoder.encode(index, archiveId, data, response);
+
+		ByteBuf duplicate = response.retainedDuplicate();
+		responseCache.put(index, archiveId, response);
+		return duplicate;
+	}
+
+	private byte[] loadIndex(int archiveId) throws IOException
+	{
+		if (archiveId == 255)
+		{
+			return indexTable;
 		}
 		else
 		{
 			// Requires disk storage. Use packed index data from
 			// store as its crc matches
 			DiskStorage storage = (DiskStorage) store.getStorage();
-			compressed = storage.readIndex(archiveId);
+			return storage.readIndex(archiveId);
 		}
-
-		ArchiveResponsePacket response = new ArchiveResponsePacket();
-		response.setIndex(index);
-		response.setArchive(archiveId);
-		response.setData(compressed);
-
-		ctx.writeAndFlush(response);
 	}
 
-	private void handleRequest(ChannelHandlerContext ctx, int index, int archiveId) throws IOException
+	private byte[] loadArchive(int index, int archiveId) throws IOException
 	{
-		logger.info("Client {} requests index {} archive {}", ctx.channel().remoteAddress(), index, archiveId);
-
 		Index i = store.findIndex(index);
-		assert i != null;
+		if (i == null)
+		{
+			return null;
+		}
 
 		Archive archive = i.getArchive(archiveId);
-		assert archive != null;
+		if (archive == null)
+		{
+			return null;
+		}
 
 		Storage storage = store.getStorage();
 		byte[] packed = storage.loadArchive(archive); // is compressed, includes length and type
 
 		if (packed == null)
 		{
-			logger.warn("Missing archive {}/{}", index, archiveId);
-			return; // is it possible to notify the client of an error with this?
+			return null;
 		}
 
 		byte compression = packed[0];
@@ -141,18 +271,6 @@ public class ArchiveRequestHandler extends SimpleChannelInboundHandler<ArchiveRe
 			packed = Arrays.copyOf(packed, packed.length - 2);
 		}
 
-		ArchiveResponsePacket response = new ArchiveResponsePacket();
-		response.setIndex(index);
-		response.setArchive(archiveId);
-		response.setData(packed);
-
-		ctx.writeAndFlush(response);
-	}
-
-	private byte[] compress(int compression, byte[] data) throws IOException
-	{
-		Container container = new Container(compression, -1);
-		container.compress(data, null);
-		return container.data;
+		return packed;
 	}
 }
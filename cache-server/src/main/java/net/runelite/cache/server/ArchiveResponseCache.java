@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded LRU cache of fully framed archive responses. The cache owns
+ * a reference to each buffer, and hands out retained duplicates so the same
+ * bytes can be written to many clients at once.
+ */
+public class ArchiveResponseCache
+{
+	private final long maxSize;
+	private final LinkedHashMap<Integer, ByteBuf> responses = new LinkedHashMap<>(16, 0.75f, true);
+	private long size;
+
+	public ArchiveResponseCache(long maxSize)
+	{
+		this.maxSize = maxSize;
+	}
+
+	private static int key(int index, int archive)
+	{
+		return (index << 16) | (archive & 0xFFFF);
+	}
+
+	/**
+	 * Get a cached response
+	 *
+	 * @param index index id
+	 * @param archive archive id
+	 * @return a retained duplicate of the response which the caller must release, or null
+	 */
+	public synchronized ByteBuf get(int index, int archive)
+	{
+		ByteBuf response = responses.get(key(index, archive));
+		return response != null ? response.retainedDuplicate() : null;
+	}
+
+	/**
+	 * Add a response to the cache. The cache takes ownership of the buffer.
+	 *
+	 * @param index index id
+	 * @param archive archive id
+	 * @param response framed response
+	 */
+	public synchronized void put(int index, int archive, ByteBuf response)
+	{
+		int length = response.readableBytes();
+		if (length > maxSize)
+		{
+			response.release();
+			return;
+		}
+
+		ByteBuf old = responses.put(key(index, archive), response);
+		if (old != null)
+		{
+			size -= old.readableBytes();
+			old.release();
+		}
+		size += length;
+
+		Iterator<Map.Entry<Integer, ByteBuf>> it = responses.entrySet().iterator();
+		while (size > maxSize && it.hasNext())
+		{
+			ByteBuf eldest = it.next().getValue();
+			it.remove();
+			size -= eldest.readableBytes();
+			eldest.release();
+		}
+	}
+
+	public synchronized long getSize()
+	{
+		return size;
+	}
+
+	public synchronized void clear()
+	{
+		for (ByteBuf response : responses.values())
+		{
+			response.release();
+		}
+		responses.clear();
+		size = 0;
+	}
+}
@@ -29,9 +29,19 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,25 +51,69 @@ public class CacheServer implements AutoCloseable
 
 	private static final int PORT = 43594;
 
-	private final EventLoopGroup group = new NioEventLoopGroup(1);
+	private static final int DEFAULT_EVENT_LOOP_THREADS = 1;
+	private static final int DEFAULT_IO_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Outbound buffer limits per client. Once the high water mark is
+	 * reached no more archives are read for that client until the
+	 * buffer drains below the low water mark.
+	 */
+	private static final int WRITE_BUFFER_LOW_WATER_MARK = 256 * 1024;
+	private static final int WRITE_BUFFER_HIGH_WATER_MARK = 1024 * 1024;
+
+	private final EventLoopGroup group;
+	private final ExecutorService ioExecutor;
 
 	private Channel channel;
 
 	private final Store store;
 	private final int revision;
 
+	private ArchiveResponseCache responseCache;
+	private byte[] indexTable;
+
 	public CacheServer(Store store, int revision)
+	{
+		this(store, revision, DEFAULT_EVENT_LOOP_THREADS, DEFAULT_IO_THREADS);
+	}
+
+	/**
+	 * @param store store to serve
+	 * @param revision client revision to accept
+	 * @param eventLoopThreads number of threads handling client connections
+	 * @param ioThreads number of threads reading archives from disk
+	 */
+	public CacheServer(Store store, int revision, int eventLoopThreads, int ioThreads)
 	{
 		this.store = store;
 		this.revision = revision;
+		this.group = new NioEventLoopGroup(eventLoopThreads);
+		this.ioExecutor = Executors.newFixedThreadPool(ioThreads, new DefaultThreadFactory("cache-server-io"));
 	}
 
-	public void start()
+	/**
+	 * Enable caching of framed archive responses. This must be called
+	 * before the server is started.
+	 *
+	 * @param maxSize maximum size of the cache in bytes, or 0 to disable it
+	 */
+	public void setResponseCacheSize(long maxSize)
 	{
+		responseCache = maxSize > 0 ? new ArchiveResponseCache(maxSize) : null;
+	}
+
+	public void start() throws IOException
+	{
+		indexTable = buildIndexTable();
+
 		ServerBootstrap b = new ServerBootstrap();
 		b.group(group)
 			.channel(NioServerSocketChannel.class)
 			.option(ChannelOption.TCP_NODELAY, true)
+			.childOption(ChannelOption.TCP_NODELAY, true)
+			.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+				new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK))
 			.childHandler(new CacheServerInitializer(this));
 
 		ChannelFuture f = b.bind(PORT).syncUninterruptibly();
@@ -78,6 +132,29 @@ public class CacheServer implements AutoCloseable
 	{
 		channel.close().syncUninterruptibly();
 		group.shutdownGracefully();
+		ioExecutor.shutdown();
+
+		if (responseCache != null)
+		{
+			responseCache.clear();
+		}
+	}
+
+	private byte[] buildIndexTable() throws IOException
+	{
+		// index 255 data, for each index:
+		// 4 byte crc
+		// 4 byte revision
+		ByteBuffer buffer = ByteBuffer.allocate(store.getIndexes().size() * 8);
+		for (Index i : store.getIndexes())
+		{
+			buffer.putInt(i.getCrc());
+			buffer.putInt(i.getRevision());
+		}
+
+		Container container = new Container(CompressionType.NONE, -1);
+		container.compress(buffer.array(), null);
+		return container.data;
 	}
 
 	public int getRevision()
@@ -89,4 +166,23 @@ public class CacheServer implements AutoCloseable
 	{
 		return store;
 	}
+
+	public Executor getIoExecutor()
+	{
+		return ioExecutor;
+	}
+
+	public ArchiveResponseCache getResponseCache()
+	{
+		return responseCache;
+	}
+
+	/**
+	 * Get the packed index 255 table of index crcs and revisions, which
+	 * is built when the server is started
+	 */
+	public byte[] getIndexTable()
+	{
+		return indexTable;
+	}
 }
@@ -29,6 +29,8 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 import net.runelite.protocol.update.decoders.ArchiveRequestDecoder;
 import net.runelite.protocol.update.decoders.EncryptionDecoder;
+import net.runelite.protocol.update.decoders.LoggedInDecoder;
+import net.runelite.protocol.update.decoders.LoggedOutDecoder;
 import net.runelite.protocol.update.encoders.ArchiveResponseEncoder;
 import net.runelite.protocol.update.encoders.XorEncoder;
 import net.runelite.protocol.handshake.HandshakeDecoder;
@@ -52,6 +54,8 @@ public class CacheServerInitializer extends ChannelInitializer<SocketChannel>
 			new HandshakeDecoder(),
 			new CacheFrameDecoder(),
 			new EncryptionDecoder(),
+			new LoggedInDecoder(),
+			new LoggedOutDecoder(),
 			new ArchiveRequestDecoder()
 		);
 
@@ -62,7 +66,7 @@ public class CacheServerInitializer extends ChannelInitializer<SocketChannel>
 		);
 
 		p.addLast(
-			new ArchiveRequestHandler(server.getStore()),
+			new ArchiveRequestHandler(server),
 			new EncryptionHandler(),
 			new HandshakeHandler(server)
 		);
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class ArchiveResponseCacheTest
+{
+	@Test
+	public void testEviction()
+	{
+		ArchiveResponseCache cache = new ArchiveResponseCache(16);
+
+		ByteBuf first = Unpooled.buffer(8).writeZero(8);
+		ByteBuf second = Unpooled.buffer(8).writeZero(8);
+		ByteBuf third = Unpooled.buffer(8).writeZero(8);
+
+		cache.put(0, 1, first);
+		cache.put(0, 2, second);
+
+		// touch the first response so the second is the eldest
+		ByteBuf duplicate = cache.get(0, 1);
+		assertEquals(8, duplicate.readableBytes());
+		duplicate.skipBytes(8).release();
+
+		cache.put(0, 3, third);
+
+		assertEquals(16, cache.getSize());
+		assertNull(cache.get(0, 2));
+		assertEquals(0, second.refCnt());
+		assertEquals(1, first.refCnt());
+
+		// reading the duplicate must not consume the cached buffer
+		duplicate = cache.get(0, 1);
+		assertEquals(8, duplicate.readableBytes());
+		duplicate.release();
+
+		cache.clear();
+		assertEquals(0, first.refCnt());
+		assertEquals(0, third.refCnt());
+	}
+}
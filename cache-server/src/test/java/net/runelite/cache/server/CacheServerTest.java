@@ -24,8 +24,10 @@
  */
 package net.runelite.cache.server;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.client.CacheClient;
 import net.runelite.cache.fs.Archive;
@@ -33,9 +35,11 @@ import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.DiskStorage;
 import net.runelite.cache.index.FileData;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -104,6 +108,154 @@ public class CacheServerTest
 		}
 	}
 
+	@Test
+	public void testServerMultipleConnections() throws Exception
+	{
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Storage storage = store.getStorage();
+			for (int i = 0; i < 4; ++i)
+			{
+				Index index = store.addIndex(i);
+				for (int j = 0; j < 100; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					FileData[] files = new FileData[1];
+					archive.setFileData(files);
+					files[0] = new FileData();
+
+					Container container = new Container(archive.getCompression(), -1);
+					container.compress(("test " + i + " " + j).getBytes(), null);
+					storage.saveArchive(archive, container.data);
+				}
+			}
+
+			store.save();
+
+			server.start();
+
+			try (Store store2 = new Store(folder.newFolder());
+				CacheClient client = new CacheClient(store2, HOST, REVISION, 4))
+			{
+				client.connect();
+				client.handshake().get();
+				client.download();
+
+				Storage storage2 = store2.getStorage();
+				for (int i = 0; i < 4; ++i)
+				{
+					Index index = store2.findIndex(i);
+					assertEquals(100, index.getArchives().size());
+
+					for (Archive archive : index.getArchives())
+					{
+						byte[] data = archive.decompress(storage2.loadArchive(archive));
+						assertArrayEquals(("test " + i + " " + archive.getArchiveId()).getBytes(), data);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testServerResponseCache() throws Exception
+	{
+		CountingStorage storage = new CountingStorage(folder.newFolder());
+		try (Store store = new Store(storage);
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			for (int i = 0; i < 2; ++i)
+			{
+				Index index = store.addIndex(i);
+				for (int j = 0; j < 10; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					FileData[] files = new FileData[1];
+					archive.setFileData(files);
+					files[0] = new FileData();
+
+					Container container = new Container(archive.getCompression(), -1);
+					container.compress(("test " + i + " " + j).getBytes(), null);
+					storage.saveArchive(archive, container.data);
+				}
+			}
+
+			store.save();
+
+			server.setResponseCacheSize(16 * 1024 * 1024);
+			server.start();
+
+			try (Store store2 = new Store(folder.newFolder());
+				CacheClient client = new CacheClient(store2, HOST, REVISION))
+			{
+				client.connect();
+				client.handshake().get();
+				client.download();
+				assertDownloaded(store2);
+			}
+
+			int reads = storage.reads.get();
+			assertTrue(reads > 0);
+			assertTrue(server.getResponseCache().getSize() > 0);
+
+			// everything, including the index 255 table, is now cached
+			try (Store store3 = new Store(folder.newFolder());
+				CacheClient client = new CacheClient(store3, HOST, REVISION))
+			{
+				client.connect();
+				client.handshake().get();
+				client.download();
+				assertDownloaded(store3);
+			}
+
+			assertEquals(reads, storage.reads.get());
+		}
+	}
+
+	private static void assertDownloaded(Store store) throws IOException
+	{
+		Storage storage = store.getStorage();
+		for (int i = 0; i < 2; ++i)
+		{
+			Index index = store.findIndex(i);
+			assertEquals(10, index.getArchives().size());
+
+			for (Archive archive : index.getArchives())
+			{
+				byte[] data = archive.decompress(storage.loadArchive(archive));
+				assertArrayEquals(("test " + i + " " + archive.getArchiveId()).getBytes(), data);
+			}
+		}
+	}
+
+	/**
+	 * Counts the archive and index reads the server makes
+	 */
+	private static class CountingStorage extends DiskStorage
+	{
+		private final AtomicInteger reads = new AtomicInteger();
+
+		CountingStorage(File folder) throws IOException
+		{
+			super(folder);
+		}
+
+		@Override
+		public byte[] readIndex(int indexId) throws IOException
+		{
+			reads.incrementAndGet();
+			return super.readIndex(indexId);
+		}
+
+		@Override
+		public byte[] loadArchive(Archive archive) throws IOException
+		{
+			reads.incrementAndGet();
+			return super.loadArchive(archive);
+		}
+	}
+
 	private void addInitialFilesToStore(Store store) throws FileNotFoundException, IOException
 	{
 		Storage storage = store.getStorage();
@@ -28,6 +28,7 @@ import java.time.Instant;
 import java.util.List;
 import net.runelite.cache.updater.beans.ArchiveEntry;
 import net.runelite.cache.updater.beans.CacheEntry;
+import net.runelite.cache.updater.beans.FileEntry;
 import net.runelite.cache.updater.beans.IndexEntry;
 import org.sql2o.Connection;
 import org.sql2o.Query;
@@ -35,10 +36,8 @@ import org.sql2o.ResultSetIterable;
 
 class CacheDAO
 {
-	// cache prepared statements for high volume queries
-	private Query associateArchive;
-	private Query findArchive, insertArchive;
-	private Query associateFile;
+	// rows per executed batch
+	private static final int BATCH_SIZE = 1000;
 
 	public CacheEntry findMostRecent(Connection con)
 	{
@@ -63,6 +62,21 @@ class CacheDAO
 			.executeAndFetchLazy(ArchiveEntry.class);
 	}
 
+	/**
+	 * Find every archive which has been in an index with the given id, in
+	 * any cache. The archive hash is not loaded.
+	 */
+	public ResultSetIterable<ArchiveEntry> findArchivesForIndexId(Connection con, int indexId)
+	{
+		return con.createQuery("select distinct archive.id, archive.archiveId, archive.nameHash,"
+			+ " archive.crc, archive.revision from archive"
+			+ " join index_archive on index_archive.archive = archive.id"
+			+ " join `index` on index.id = index_archive.index"
+			+ " where index.indexId = :indexId")
+			.addParameter("indexId", indexId)
+			.executeAndFetchLazy(ArchiveEntry.class);
+	}
+
 	public CacheEntry createCache(Connection con, int revision, Instant date)
 	{
 		int cacheId = con.createQuery("insert into cache (revision, date) values (:revision, :date)")
@@ -96,82 +110,92 @@ class CacheDAO
 		return entry;
 	}
 
-	public void associateArchiveToIndex(Connection con, ArchiveEntry archive, IndexEntry index)
+	public void associateArchivesToIndex(Connection con, List<ArchiveEntry> archives, IndexEntry index)
 	{
-		if (associateArchive == null)
+		Query query = con.createQuery("insert into index_archive (`index`, archive) values (:index, :archive)");
+
+		int count = 0;
+		for (ArchiveEntry archive : archives)
 		{
-			associateArchive = con.createQuery("insert into index_archive (`index`, archive) values (:index, :archive)");
+			query
+				.addParameter("index", index.getId())
+				.addParameter("archive", archive.getId())
+				.addToBatch();
+
+			if (++count % BATCH_SIZE == 0)
+			{
+				query.executeBatch();
+			}
 		}
-		associateArchive
-			.addParameter("index", index.getId())
-			.addParameter("archive", archive.getId())
-			.executeUpdate();
-	}
 
-	public ArchiveEntry findArchive(Connection con, IndexEntry index,
-		int archiveId, int nameHash, int crc, int revision)
-	{
-		if (findArchive == null)
+		if (count % BATCH_SIZE != 0)
 		{
-			findArchive = con.createQuery("select distinct archive.id, archive.archiveId, archive.nameHash,"
-				+ " archive.crc, archive.revision, archive.hash from archive "
-				+ " join index_archive on index_archive.archive = archive.id"
-				+ " join `index` on index.id = index_archive.index"
-				+ " where archive.archiveId = :archiveId"
-				+ " and archive.nameHash = :nameHash"
-				+ " and archive.crc = :crc"
-				+ " and archive.revision = :revision"
-				+ " and index.indexId = :indexId");
+			query.executeBatch();
 		}
-
-		ArchiveEntry entry = findArchive
-			.addParameter("archiveId", archiveId)
-			.addParameter("nameHash", nameHash)
-			.addParameter("crc", crc)
-			.addParameter("revision", revision)
-			.addParameter("indexId", index.getIndexId())
-			.executeAndFetchFirst(ArchiveEntry.class);
-		return entry;
 	}
 
-	public ArchiveEntry createArchive(Connection con, IndexEntry index,
-		int archiveId, int nameHash, int crc, int revision, byte[] hash)
+	/**
+	 * Insert archives, setting the id of each entry from the generated keys
+	 */
+	public void createArchives(Connection con, List<ArchiveEntry> archives)
 	{
-		if (insertArchive == null)
+		Query query = con.createQuery("insert into archive (archiveId, nameHash, crc, revision, hash) values "
+			+ "(:archiveId, :nameHash, :crc, :revision, :hash)");
+
+		for (int i = 0; i < archives.size(); i += BATCH_SIZE)
 		{
-			insertArchive = con.createQuery("insert into archive (archiveId, nameHash, crc, revision, hash) values "
-				+ "(:archiveId, :nameHash, :crc, :revision, :hash)");
+			List<ArchiveEntry> batch = archives.subList(i, Math.min(i + BATCH_SIZE, archives.size()));
+
+			for (ArchiveEntry archive : batch)
+			{
+				query
+					.addParameter("archiveId", archive.getArchiveId())
+					.addParameter("nameHash", archive.getNameHash())
+					.addParameter("crc", archive.getCrc())
+					.addParameter("revision", archive.getRevision())
+					.addParameter("hash", archive.getHash())
+					.addToBatch();
+			}
+
+			List<Integer> keys = query.executeBatch().getKeys(Integer.class);
+			if (keys.size() != batch.size())
+			{
+				throw new IllegalStateException("expected " + batch.size() + " generated keys, got " + keys.size());
+			}
+
+			for (int j = 0; j < batch.size(); ++j)
+			{
+				batch.get(j).setId(keys.get(j));
+			}
 		}
-
-		int id = insertArchive
-			.addParameter("archiveId", archiveId)
-			.addParameter("nameHash", nameHash)
-			.addParameter("crc", crc)
-			.addParameter("revision", revision)
-			.addParameter("hash", hash)
-			.executeUpdate()
-			.getKey(int.class);
-
-		ArchiveEntry entry = new ArchiveEntry();
-		entry.setId(id);
-		entry.setArchiveId(archiveId);
-		entry.setNameHash(nameHash);
-		entry.setCrc(crc);
-		entry.setRevision(revision);
-		entry.setHash(hash);
-		return entry;
 	}
 
-	public void associateFileToArchive(Connection con, ArchiveEntry archive, int fileId, int nameHash)
+	/**
+	 * Insert files. The archive id of each entry is the id of the archive
+	 * row it belongs to.
+	 */
+	public void associateFilesToArchives(Connection con, List<FileEntry> files)
 	{
-		if (associateFile == null)
+		Query query = con.createQuery("insert into file (archive, fileId, nameHash) values (:archive, :fileId, :nameHash)");
+
+		int count = 0;
+		for (FileEntry file : files)
+		{
+			query
+				.addParameter("archive", file.getArchiveId())
+				.addParameter("fileId", file.getFileId())
+				.addParameter("nameHash", file.getNameHash())
+				.addToBatch();
+
+			if (++count % BATCH_SIZE == 0)
+			{
+				query.executeBatch();
+			}
+		}
+
+		if (count % BATCH_SIZE != 0)
 		{
-			associateFile = con.createQuery("insert into file (archive, fileId, nameHash) values (:archive, :fileId, :nameHash)");
+			query.executeBatch();
 		}
-		associateFile
-			.addParameter("archive", archive.getId())
-			.addParameter("fileId", fileId)
-			.addParameter("nameHash", nameHash)
-			.executeUpdate();
 	}
 }
@@ -25,7 +25,10 @@
 package net.runelite.cache.updater;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
@@ -33,6 +36,7 @@ import net.runelite.cache.fs.Store;
 import net.runelite.cache.index.FileData;
 import net.runelite.cache.updater.beans.ArchiveEntry;
 import net.runelite.cache.updater.beans.CacheEntry;
+import net.runelite.cache.updater.beans.FileEntry;
 import net.runelite.cache.updater.beans.IndexEntry;
 import org.sql2o.Connection;
 import org.sql2o.ResultSetIterable;
@@ -108,25 +112,80 @@ public class CacheStorage implements Storage
 		{
 			IndexEntry entry = cacheDao.createIndex(con, cacheEntry, index.getId(), index.getCrc(), index.getRevision());
 
+			// archives already in the database for this index, by archive id
+			Map<Integer, List<ArchiveEntry>> existing = new HashMap<>();
+			try (ResultSetIterable<ArchiveEntry> archives = cacheDao.findArchivesForIndexId(con, index.getId()))
+			{
+				for (ArchiveEntry archiveEntry : archives)
+				{
+					existing.computeIfAbsent(archiveEntry.getArchiveId(), k -> new ArrayList<>(1))
+						.add(archiveEntry);
+				}
+			}
+
+			List<ArchiveEntry> archiveEntries = new ArrayList<>(index.getArchives().size());
+			List<ArchiveEntry> newEntries = new ArrayList<>();
+			List<Archive> newArchives = new ArrayList<>();
+
 			for (Archive archive : index.getArchives())
 			{
-				ArchiveEntry archiveEntry = cacheDao.findArchive(con, entry, archive.getArchiveId(),
-					archive.getNameHash(), archive.getCrc(), archive.getRevision());
+				ArchiveEntry archiveEntry = findArchive(existing.get(archive.getArchiveId()), archive);
 				if (archiveEntry == null)
 				{
-					byte[] hash = archive.getHash();
-					archiveEntry = cacheDao.createArchive(con, entry, archive.getArchiveId(),
-						archive.getNameHash(), archive.getCrc(), archive.getRevision(), hash);
+					archiveEntry = new ArchiveEntry();
+					archiveEntry.setArchiveId(archive.getArchiveId());
+					archiveEntry.setNameHash(archive.getNameHash());
+					archiveEntry.setCrc(archive.getCrc());
+					archiveEntry.setRevision(archive.getRevision());
+					archiveEntry.setHash(archive.getHash());
+
+					newEntries.add(archiveEntry);
+					newArchives.add(archive);
+				}
 
-					for (FileData file : archive.getFileData())
-					{
-						cacheDao.associateFileToArchive(con, archiveEntry, file.getId(), file.getNameHash());
-					}
+				archiveEntries.add(archiveEntry);
+			}
+
+			cacheDao.createArchives(con, newEntries);
+
+			List<FileEntry> files = new ArrayList<>();
+			for (int i = 0; i < newArchives.size(); ++i)
+			{
+				ArchiveEntry archiveEntry = newEntries.get(i);
+
+				for (FileData file : newArchives.get(i).getFileData())
+				{
+					FileEntry fileEntry = new FileEntry();
+					fileEntry.setArchiveId(archiveEntry.getId());
+					fileEntry.setFileId(file.getId());
+					fileEntry.setNameHash(file.getNameHash());
+					files.add(fileEntry);
 				}
+			}
 
-				cacheDao.associateArchiveToIndex(con, archiveEntry, entry);
+			cacheDao.associateFilesToArchives(con, files);
+			cacheDao.associateArchivesToIndex(con, archiveEntries, entry);
+		}
+	}
+
+	private static ArchiveEntry findArchive(List<ArchiveEntry> entries, Archive archive)
+	{
+		if (entries == null)
+		{
+			return null;
+		}
+
+		for (ArchiveEntry entry : entries)
+		{
+			if (entry.getNameHash() == archive.getNameHash()
+				&& entry.getCrc() == archive.getCrc()
+				&& entry.getRevision() == archive.getRevision())
+			{
+				return entry;
 			}
 		}
+
+		return null;
 	}
 
 	@Override
@@ -30,12 +30,8 @@ import io.minio.errors.InvalidPortException;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import net.runelite.cache.client.CacheClient;
 import net.runelite.cache.client.IndexInfo;
-import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.updater.beans.CacheEntry;
 import net.runelite.cache.updater.beans.IndexEntry;
@@ -63,6 +59,12 @@ public class CacheUpdater implements CommandLineRunner
 	@Value("${minio.bucket}")
 	private String minioBucket;
 
+	@Value("${minio.uploaders:8}")
+	private int minioUploaders;
+
+	@Value("${minio.uploadqueue:256}")
+	private int minioUploadQueue;
+
 	@Autowired
 	public CacheUpdater(
 		@Qualifier("Runelite Cache SQL2O") Sql2o sql2o,
@@ -77,7 +79,8 @@ public class CacheUpdater implements CommandLineRunner
 	{
 		int rsVersion = RuneLiteAPI.getRsVersion();
 
-		try (Connection con = sql2o.beginTransaction())
+		try (Connection con = sql2o.beginTransaction();
+			CacheUploaderPool uploaderPool = new CacheUploaderPool(minioClient, minioBucket, minioUploaders, minioUploadQueue))
 		{
 			CacheDAO cacheDao = new CacheDAO();
 			CacheEntry cache = cacheDao.findMostRecent(con);
@@ -92,10 +95,7 @@ public class CacheUpdater implements CommandLineRunner
 			Store store = new Store(storage);
 			store.load();
 
-			ExecutorService executor = Executors.newSingleThreadExecutor();
-
-			CacheClient client = new CacheClient(store, rsVersion,
-				(Archive archive, byte[] data) -> executor.submit(new CacheUploader(minioClient, minioBucket, archive, data)));
+			CacheClient client = new CacheClient(store, rsVersion, uploaderPool);
 
 			client.connect();
 			HandshakeResponseType result = client.handshake().join();
@@ -117,19 +117,15 @@ public class CacheUpdater implements CommandLineRunner
 
 			client.download();
 
+			// ensure objects are added to the store before they become
+			// visible in the database, this also sets the archive hashes
+			uploaderPool.awaitTermination();
+
 			CacheEntry newCache = created ? cache : cacheDao.createCache(con, rsVersion, Instant.now());
 
 			storage.setCacheEntry(newCache);
 			store.save();
 
-			// ensure objects are added to the store before they become
-			// visible in the database
-			executor.shutdown();
-			while (!executor.awaitTermination(1, TimeUnit.SECONDS))
-			{
-				logger.debug("Waiting for termination of executor...");
-			}
-
 			// commit database
 			con.commit();
 		}
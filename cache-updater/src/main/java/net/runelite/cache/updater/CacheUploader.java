@@ -26,42 +26,40 @@ package net.runelite.cache.updater;
 
 import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
-import io.minio.MinioClient;
-import io.minio.errors.ErrorResponseException;
-import io.minio.errors.InsufficientDataException;
-import io.minio.errors.InternalException;
-import io.minio.errors.InvalidArgumentException;
-import io.minio.errors.InvalidBucketNameException;
-import io.minio.errors.NoResponseException;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import net.runelite.cache.fs.Archive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xmlpull.v1.XmlPullParserException;
 
 public class CacheUploader implements Runnable
 {
 	private static final Logger logger = LoggerFactory.getLogger(CacheUploader.class);
 
-	private final MinioClient minioClient;
-	private final String minioBucket;
+	private final CacheUploaderPool pool;
 	private final Archive archive;
 	private final byte[] data;
 
-	public CacheUploader(MinioClient minioClient, String minioBucket, Archive archive, byte[] data)
+	CacheUploader(CacheUploaderPool pool, Archive archive, byte[] data)
 	{
-		this.minioClient = minioClient;
-		this.minioBucket = minioBucket;
+		this.pool = pool;
 		this.archive = archive;
 		this.data = data;
 	}
 
 	@Override
 	public void run()
+	{
+		try
+		{
+			upload();
+		}
+		finally
+		{
+			pool.onDone();
+		}
+	}
+
+	private void upload()
 	{
 		byte[] hash = Hashing.sha256().hashBytes(data).asBytes();
 		String hashStr = BaseEncoding.base16().encode(hash);
@@ -74,22 +72,31 @@ public class CacheUploader implements Runnable
 			.append(hashStr.substring(2))
 			.toString();
 
+		if (!pool.claim(path))
+		{
+			return; // already uploaded this run
+		}
+
+		ObjectStore store = pool.getStore();
+
 		try
 		{
-			try (InputStream in = minioClient.getObject(minioBucket, path))
+			long start = System.nanoTime();
+			boolean exists = store.exists(path);
+			pool.onChecked(exists, System.nanoTime() - start);
+			if (exists)
 			{
 				return; // already exists
 			}
-			catch (ErrorResponseException ex)
-			{
-				// doesn't exist
-			}
 
-			minioClient.putObject(minioBucket, path, new ByteArrayInputStream(data), data.length, "binary/octet-stream");
+			start = System.nanoTime();
+			store.put(path, data);
+			pool.onUploaded(data.length, System.nanoTime() - start);
 		}
-		catch (ErrorResponseException | InsufficientDataException | InternalException | InvalidArgumentException | InvalidBucketNameException | NoResponseException | IOException | InvalidKeyException | NoSuchAlgorithmException | XmlPullParserException ex)
+		catch (IOException ex)
 		{
 			logger.warn("unable to upload data to store", ex);
+			pool.onFailed(path);
 		}
 	}
 
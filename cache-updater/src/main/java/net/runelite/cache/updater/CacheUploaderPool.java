@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.updater;
+
+import com.google.common.base.Stopwatch;
+import io.minio.MinioClient;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.runelite.cache.client.DownloadWatcher;
+import net.runelite.cache.fs.Archive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uploads downloaded archives to the object store with a fixed number of
+ * uploaders. Once the queue is full, downloadComplete() blocks until an
+ * upload finishes, which in turn holds back the cache client.
+ */
+public class CacheUploaderPool implements DownloadWatcher, AutoCloseable
+{
+	private static final Logger logger = LoggerFactory.getLogger(CacheUploaderPool.class);
+
+	private final ObjectStore store;
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	// objects which are in the bucket, or are being uploaded
+	private final Set<String> knownObjects = ConcurrentHashMap.newKeySet();
+	private final Stopwatch stopwatch = Stopwatch.createStarted();
+
+	private final AtomicLong queued = new AtomicLong();
+	private final AtomicLong queuedBytes = new AtomicLong();
+	private final AtomicLong blockedNanos = new AtomicLong();
+	private final AtomicLong checked = new AtomicLong();
+	private final AtomicLong checkNanos = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong uploaded = new AtomicLong();
+	private final AtomicLong uploadedBytes = new AtomicLong();
+	private final AtomicLong uploadNanos = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	/**
+	 * @param minioClient client for the object store
+	 * @param minioBucket bucket to upload to
+	 * @param uploaders number of concurrent uploads
+	 * @param queueSize number of archives which may wait for an uploader
+	 */
+	public CacheUploaderPool(MinioClient minioClient, String minioBucket, int uploaders, int queueSize)
+	{
+		this(new MinioObjectStore(minioClient, minioBucket), uploaders, queueSize);
+	}
+
+	CacheUploaderPool(ObjectStore store, int uploaders, int queueSize)
+	{
+		this.store = store;
+		this.executor = Executors.newFixedThreadPool(uploaders);
+		this.permits = new Semaphore(uploaders + queueSize);
+	}
+
+	@Override
+	public void downloadComplete(Archive archive, byte[] data)
+	{
+		long start = System.nanoTime();
+		permits.acquireUninterruptibly();
+		blockedNanos.addAndGet(System.nanoTime() - start);
+
+		queued.incrementAndGet();
+		queuedBytes.addAndGet(data.length);
+
+		try
+		{
+			executor.execute(new CacheUploader(this, archive, data));
+		}
+		catch (RejectedExecutionException ex)
+		{
+			permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Wait for all queued uploads to finish, and log the metrics
+	 */
+	public void awaitTermination() throws InterruptedException
+	{
+		executor.shutdown();
+		while (!executor.awaitTermination(1, TimeUnit.SECONDS))
+		{
+			logger.debug("Waiting for termination of executor...");
+		}
+
+		stopwatch.stop();
+		logMetrics();
+	}
+
+	/**
+	 * Stop the uploaders without waiting for queued uploads, such as when
+	 * the download fails. Does nothing once the uploads have finished.
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdownNow();
+	}
+
+	private void logMetrics()
+	{
+		long elapsed = Math.max(1L, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+
+		logger.info("Queued {} archives ({} KB, {}/s), blocked for {} ms",
+			queued.get(), queuedBytes.get() / 1024,
+			queued.get() * 1000L / elapsed,
+			TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()));
+		logger.info("Checked {} objects ({} skipped) in {} ms of uploader time",
+			checked.get(), skipped.get(),
+			TimeUnit.NANOSECONDS.toMillis(checkNanos.get()));
+		logger.info("Uploaded {} objects ({} KB, {} KB/s) in {} ms of uploader time, {} failed",
+			uploaded.get(), uploadedBytes.get() / 1024,
+			uploadedBytes.get() * 1000L / 1024 / elapsed,
+			TimeUnit.NANOSECONDS.toMillis(uploadNanos.get()), failed.get());
+	}
+
+	ObjectStore getStore()
+	{
+		return store;
+	}
+
+	/**
+	 * Claim an object for upload
+	 *
+	 * @return false if the object is already known to be in the bucket,
+	 * or is being uploaded by another uploader
+	 */
+	boolean claim(String path)
+	{
+		if (knownObjects.add(path))
+		{
+			return true;
+		}
+
+		skipped.incrementAndGet();
+		return false;
+	}
+
+	void onChecked(boolean exists, long nanos)
+	{
+		checked.incrementAndGet();
+		checkNanos.addAndGet(nanos);
+		if (exists)
+		{
+			skipped.incrementAndGet();
+		}
+	}
+
+	void onUploaded(int length, long nanos)
+	{
+		uploaded.incrementAndGet();
+		uploadedBytes.addAndGet(length);
+		uploadNanos.addAndGet(nanos);
+	}
+
+	void onFailed(String path)
+	{
+		// allow another archive with the same contents to retry
+		knownObjects.remove(path);
+		failed.incrementAndGet();
+	}
+
+	void onDone()
+	{
+		permits.release();
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.updater;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CacheUploaderPoolTest
+{
+	/**
+	 * In memory stand-in for the bucket
+	 */
+	private static class MemoryObjectStore implements ObjectStore
+	{
+		private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		private final AtomicInteger checks = new AtomicInteger();
+		private final AtomicInteger puts = new AtomicInteger();
+		private final CountDownLatch release;
+
+		MemoryObjectStore(int blocked)
+		{
+			release = new CountDownLatch(blocked);
+		}
+
+		@Override
+		public boolean exists(String path)
+		{
+			checks.incrementAndGet();
+			return objects.containsKey(path);
+		}
+
+		@Override
+		public void put(String path, byte[] data) throws IOException
+		{
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException ex)
+			{
+				throw new IOException(ex);
+			}
+
+			puts.incrementAndGet();
+			objects.put(path, data);
+		}
+	}
+
+	private static final Index INDEX = new Index(7);
+
+	private static String path(byte[] data)
+	{
+		String hash = BaseEncoding.base16().encode(Hashing.sha256().hashBytes(data).asBytes());
+		return hash.substring(0, 2) + "/" + hash.substring(2);
+	}
+
+	@Test
+	public void testDuplicateContentUploadedOnce() throws InterruptedException
+	{
+		MemoryObjectStore store = new MemoryObjectStore(0);
+		CacheUploaderPool pool = new CacheUploaderPool(store, 4, 16);
+
+		byte[] data = new byte[]
+		{
+			4, 8, 15, 16, 23, 42
+		};
+		Archive first = new Archive(INDEX, 1);
+		Archive second = new Archive(INDEX, 2);
+		pool.downloadComplete(first, data);
+		pool.downloadComplete(second, data.clone());
+		pool.awaitTermination();
+
+		assertEquals(1, store.checks.get());
+		assertEquals(1, store.puts.get());
+		assertArrayEquals(data, store.objects.get(path(data)));
+
+		// both archives get the hash, even though only one was uploaded
+		assertNotNull(first.getHash());
+		assertArrayEquals(first.getHash(), second.getHash());
+	}
+
+	@Test
+	public void testExistingObjectSkipped() throws InterruptedException
+	{
+		MemoryObjectStore store = new MemoryObjectStore(0);
+		CacheUploaderPool pool = new CacheUploaderPool(store, 4, 16);
+
+		byte[] data = new byte[]
+		{
+			4, 8, 15, 16, 23, 42
+		};
+		store.objects.put(path(data), data);
+
+		pool.downloadComplete(new Archive(INDEX, 1), data);
+		pool.awaitTermination();
+
+		assertEquals(1, store.checks.get());
+		assertEquals(0, store.puts.get());
+	}
+
+	@Test(timeout = 10_000L)
+	public void testBackpressure() throws InterruptedException
+	{
+		MemoryObjectStore store = new MemoryObjectStore(1);
+		// one archive uploading and one queued
+		CacheUploaderPool pool = new CacheUploaderPool(store, 1, 1);
+
+		pool.downloadComplete(new Archive(INDEX, 1), new byte[]
+		{
+			1
+		});
+		pool.downloadComplete(new Archive(INDEX, 2), new byte[]
+		{
+			2
+		});
+
+		Thread downloader = new Thread(() -> pool.downloadComplete(new Archive(INDEX, 3), new byte[]
+		{
+			3
+		}));
+		downloader.start();
+
+		// the third archive has to wait for an upload to finish
+		downloader.join(500L);
+		assertTrue(downloader.isAlive());
+		assertEquals(0, store.puts.get());
+
+		store.release.countDown();
+		downloader.join();
+		pool.awaitTermination();
+
+		assertEquals(3, store.puts.get());
+	}
+}
@@ -24,19 +24,21 @@
  */
 package net.runelite.cache;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.concurrent.Executor;
 import net.runelite.cache.definitions.InterfaceDefinition;
 import net.runelite.cache.definitions.exporters.InterfaceExporter;
 import net.runelite.cache.definitions.loaders.InterfaceLoader;
-import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
 import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.util.Namer;
+import net.runelite.cache.util.Parallel;
 
 public class InterfaceManager
 {
@@ -50,6 +52,15 @@ public class InterfaceManager
 	}
 
 	public void load() throws IOException
+	{
+		load(MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Load the interfaces, reading and decoding each interface group in
+	 * parallel on the given executor
+	 */
+	public void load(Executor executor) throws IOException
 	{
 		InterfaceLoader loader = new InterfaceLoader();
 
@@ -59,7 +70,9 @@ public class InterfaceManager
 		int max = index.getArchives().stream().mapToInt(a -> a.getArchiveId()).max().getAsInt();
 		interfaces = new InterfaceDefinition[max + 1][];
 
-		for (Archive archive : index.getArchives())
+		// archive ids are unique within the index, so each group is only
+		// ever written by one task
+		Parallel.forEach(index.getArchives(), archive ->
 		{
 			int archiveId = archive.getArchiveId();
 			byte[] archiveData = storage.loadArchive(archive);
@@ -80,7 +93,7 @@ public class InterfaceManager
 				InterfaceDefinition iface = loader.load(widgetId, file.getContents());
 				ifaces[fileId] = iface;
 			}
-		}
+		}, executor);
 	}
 
 	public int getNumInterfaceGroups()
@@ -24,12 +24,15 @@
  */
 package net.runelite.cache;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import net.runelite.cache.definitions.NpcDefinition;
 import net.runelite.cache.definitions.exporters.NpcExporter;
 import net.runelite.cache.definitions.loaders.NpcLoader;
@@ -40,6 +43,7 @@ import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.util.IDClass;
+import net.runelite.cache.util.Parallel;
 
 public class NpcManager
 {
@@ -52,6 +56,14 @@ public class NpcManager
 	}
 
 	public void load() throws IOException
+	{
+		load(MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Load the npcs, decoding the definitions in parallel on the given executor
+	 */
+	public void load(Executor executor) throws IOException
 	{
 		NpcLoader loader = new NpcLoader();
 
@@ -62,10 +74,12 @@ public class NpcManager
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
+		List<FSFile> fileList = files.getFiles();
+		List<NpcDefinition> defs = Parallel.map(fileList, f -> loader.load(f.getFileId(), f.getContents()), executor);
+
+		for (int i = 0; i < fileList.size(); ++i)
 		{
-			NpcDefinition npc = loader.load(f.getFileId(), f.getContents());
-			npcs.put(f.getFileId(), npc);
+			npcs.put(fileList.get(i).getFileId(), defs.get(i));
 		}
 	}
 
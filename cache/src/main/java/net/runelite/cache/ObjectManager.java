@@ -24,12 +24,15 @@
  */
 package net.runelite.cache;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import net.runelite.cache.definitions.ObjectDefinition;
 import net.runelite.cache.definitions.exporters.ObjectExporter;
 import net.runelite.cache.definitions.loaders.ObjectLoader;
@@ -40,6 +43,7 @@ import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.util.IDClass;
+import net.runelite.cache.util.Parallel;
 
 public class ObjectManager
 {
@@ -52,6 +56,14 @@ public class ObjectManager
 	}
 
 	public void load() throws IOException
+	{
+		load(MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Load the objects, decoding the definitions in parallel on the given executor
+	 */
+	public void load(Executor executor) throws IOException
 	{
 		ObjectLoader loader = new ObjectLoader();
 
@@ -62,10 +74,12 @@ public class ObjectManager
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
+		List<FSFile> fileList = files.getFiles();
+		List<ObjectDefinition> defs = Parallel.map(fileList, f -> loader.load(f.getFileId(), f.getContents()), executor);
+
+		for (int i = 0; i < fileList.size(); ++i)
 		{
-			ObjectDefinition def = loader.load(f.getFileId(), f.getContents());
-			objects.put(f.getFileId(), def);
+			objects.put(fileList.get(i).getFileId(), defs.get(i));
 		}
 	}
 
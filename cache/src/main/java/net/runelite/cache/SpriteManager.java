@@ -26,19 +26,22 @@ package net.runelite.cache;
 
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 import net.runelite.cache.definitions.SpriteDefinition;
 import net.runelite.cache.definitions.exporters.SpriteExporter;
 import net.runelite.cache.definitions.loaders.SpriteLoader;
 import net.runelite.cache.definitions.providers.SpriteProvider;
-import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Parallel;
 
 public class SpriteManager implements SpriteProvider
 {
@@ -51,17 +54,28 @@ public class SpriteManager implements SpriteProvider
 	}
 
 	public void load() throws IOException
+	{
+		load(MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Load the sprites, reading and decoding the sprite archives in
+	 * parallel on the given executor
+	 */
+	public void load(Executor executor) throws IOException
 	{
 		Storage storage = store.getStorage();
 		Index index = store.getIndex(IndexType.SPRITES);
+		SpriteLoader loader = new SpriteLoader();
 
-		for (Archive a : index.getArchives())
+		List<SpriteDefinition[]> archiveSprites = Parallel.map(index.getArchives(), a ->
 		{
 			byte[] contents = a.decompress(storage.loadArchive(a));
+			return loader.load(a.getArchiveId(), contents);
+		}, executor);
 
-			SpriteLoader loader = new SpriteLoader();
-			SpriteDefinition[] defs = loader.load(a.getArchiveId(), contents);
-
+		for (SpriteDefinition[] defs : archiveSprites)
+		{
 			for (SpriteDefinition sprite : defs)
 			{
 				sprites.put(sprite.getId(), sprite);
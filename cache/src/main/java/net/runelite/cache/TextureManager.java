@@ -24,18 +24,20 @@
  */
 package net.runelite.cache;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import net.runelite.cache.definitions.TextureDefinition;
 import net.runelite.cache.definitions.loaders.TextureLoader;
 import net.runelite.cache.definitions.providers.TextureProvider;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.Parallel;
 
 public class TextureManager implements TextureProvider
 {
@@ -48,6 +50,14 @@ public class TextureManager implements TextureProvider
 	}
 
 	public void load() throws IOException
+	{
+		load(MoreExecutors.directExecutor());
+	}
+
+	/**
+	 * Load the textures, decoding the definitions in parallel on the given executor
+	 */
+	public void load(Executor executor) throws IOException
 	{
 		Storage storage = store.getStorage();
 		Index index = store.getIndex(IndexType.TEXTURES);
@@ -58,11 +68,7 @@ public class TextureManager implements TextureProvider
 
 		TextureLoader loader = new TextureLoader();
 
-		for (FSFile file : files.getFiles())
-		{
-			TextureDefinition texture = loader.load(file.getFileId(), file.getContents());
-			textures.add(texture);
-		}
+		textures.addAll(Parallel.map(files.getFiles(), file -> loader.load(file.getFileId(), file.getContents()), executor));
 	}
 
 	public List<TextureDefinition> getTextures()
@@ -27,8 +27,8 @@ package net.runelite.cache.fs;
 import static com.google.common.primitives.Bytes.concat;
 import com.google.common.primitives.Ints;
 import java.io.IOException;
+import java.util.Arrays;
 import net.runelite.cache.fs.jagex.CompressionType;
-import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
 import net.runelite.cache.util.BZip2;
 import net.runelite.cache.util.Crc32;
@@ -41,6 +41,13 @@ public class Container
 {
 	private static final Logger logger = LoggerFactory.getLogger(Container.class);
 
+	/**
+	 * Upper bound on the decompressed length read from a container. The
+	 * length is read before the data is validated, so it must not be
+	 * trusted for the allocation of the output buffer.
+	 */
+	private static final int MAX_DECOMPRESSED_LENGTH = 16 * 1024 * 1024;
+
 	public byte[] data;
 	public int compression; // compression
 	public int revision;
@@ -92,94 +99,87 @@ public class Container
 
 	public static Container decompress(byte[] b, int[] keys) throws IOException
 	{
-		InputStream stream = new InputStream(b);
+		if (keys != null)
+		{
+			// decryption happens in place, so don't modify the caller's data
+			b = b.clone();
+		}
+
+		return decompressInPlace(b, 0, b.length, keys);
+	}
+
+	/**
+	 * Decompress a container held in a slice of a larger buffer, such as a
+	 * pooled or reused read buffer. If keys are given the encrypted payload
+	 * is decrypted in place, so the contents of the slice are modified.
+	 * The only allocation made is the array holding the decompressed data.
+	 *
+	 * @param b buffer holding the container
+	 * @param offset offset of the container in the buffer
+	 * @param length length of the container, including the revision if present
+	 * @param keys xtea keys, or null
+	 * @return the decompressed container
+	 * @throws IOException
+	 */
+	public static Container decompressInPlace(byte[] b, int offset, int length, int[] keys) throws IOException
+	{
+		if (length < 5)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-		int compression = stream.readUnsignedByte();
-		int compressedLength = stream.readInt();
+		int compression = b[offset] & 0xFF;
+		int compressedLength = Ints.fromBytes(b[offset + 1], b[offset + 2], b[offset + 3], b[offset + 4]);
 		if (compressedLength < 0 || compressedLength > 1000000)
 		{
 			throw new RuntimeException("Invalid data");
 		}
 
+		// compressed containers have the decompressed length prepended to the data
+		int encryptedLength = compression == CompressionType.NONE ? compressedLength : compressedLength + 4;
+		if (5 + encryptedLength > length)
+		{
+			throw new RuntimeException("Invalid data");
+		}
+
+		int dataOffset = offset + 5;
+
 		Crc32 crc32 = new Crc32();
-		crc32.update(b, 0, 5); // compression + length
+		crc32.update(b, offset, 5 + encryptedLength); // compression + length + encrypted data
+
+		decrypt(b, dataOffset, encryptedLength, keys);
 
-		byte[] data;
 		int revision = -1;
+		int revisionOffset = dataOffset + encryptedLength;
+		if (offset + length - revisionOffset >= 2)
+		{
+			revision = ((b[revisionOffset] & 0xFF) << 8) | (b[revisionOffset + 1] & 0xFF);
+		}
+
+		byte[] data;
 		switch (compression)
 		{
 			case CompressionType.NONE:
 			{
-				byte[] encryptedData = new byte[compressedLength];
-				stream.readBytes(encryptedData, 0, compressedLength);
-
-				crc32.update(encryptedData, 0, compressedLength);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				data = decryptedData;
-
+				data = Arrays.copyOfRange(b, dataOffset, dataOffset + compressedLength);
 				break;
 			}
 			case CompressionType.BZ2:
 			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
-
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				stream = new InputStream(decryptedData);
-
-				int decompressedLength = stream.readInt();
-				data = BZip2.decompress(stream.getRemaining(), compressedLength);
-
-				if (data == null)
-				{
-					return null;
-				}
-
-				assert data.length == decompressedLength;
+				int decompressedLength = Ints.fromBytes(b[dataOffset], b[dataOffset + 1], b[dataOffset + 2], b[dataOffset + 3]);
+				checkDecompressedLength(decompressedLength);
 
+				data = new byte[decompressedLength];
+				BZip2.decompress(b, dataOffset + 4, compressedLength, data);
 				break;
 			}
 			case CompressionType.GZ:
 			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
-
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				stream = new InputStream(decryptedData);
-
-				int decompressedLength = stream.readInt();
-				data = GZip.decompress(stream.getRemaining(), compressedLength);
-
-				if (data == null)
-				{
-					return null;
-				}
-
-				assert data.length == decompressedLength;
+				int decompressedLength = Ints.fromBytes(b[dataOffset], b[dataOffset + 1], b[dataOffset + 2], b[dataOffset + 3]);
+				checkDecompressedLength(decompressedLength);
 
+				data = new byte[decompressedLength];
+				GZip.decompress(b, dataOffset + 4, compressedLength, data);
 				break;
 			}
 			default:
@@ -192,15 +192,75 @@ public class Container
 		return container;
 	}
 
-	private static byte[] decrypt(byte[] data, int length, int[] keys)
+	private static void checkDecompressedLength(int decompressedLength) throws IOException
+	{
+		if (decompressedLength < 0 || decompressedLength > MAX_DECOMPRESSED_LENGTH)
+		{
+			throw new IOException("Invalid decompressed length " + decompressedLength);
+		}
+	}
+
+	/**
+	 * Check if the given keys decrypt a container. Only the first block
+	 * of the encrypted data is decrypted, and the decompressed length and
+	 * compression header in it are validated, so this is much cheaper
+	 * than decompressing the container. Uncompressed containers have no
+	 * header to validate, so any key is accepted for them as long as the
+	 * container itself is well formed.
+	 *
+	 * @param b container data, which is not modified
+	 * @param keys xtea keys
+	 * @return true if the keys appear to be correct
+	 */
+	public static boolean checkKeys(byte[] b, int[] keys)
+	{
+		if (b.length < 5 + 8)
+		{
+			return false;
+		}
+
+		int compression = b[0] & 0xFF;
+		if (compression != CompressionType.BZ2 && compression != CompressionType.GZ)
+		{
+			try
+			{
+				decompress(b, keys);
+				return true;
+			}
+			catch (IOException | RuntimeException ex)
+			{
+				return false;
+			}
+		}
+
+		byte[] block = Arrays.copyOfRange(b, 5, 5 + 8);
+		decrypt(block, 0, block.length, keys);
+
+		int decompressedLength = Ints.fromBytes(block[0], block[1], block[2], block[3]);
+		if (decompressedLength < 0 || decompressedLength > MAX_DECOMPRESSED_LENGTH)
+		{
+			return false;
+		}
+
+		if (compression == CompressionType.GZ)
+		{
+			// gzip magic and deflate method
+			return block[4] == (byte) 0x1f && block[5] == (byte) 0x8b && block[6] == 8;
+		}
+
+		// the bzip2 file header is stripped, so this is the block header magic
+		return block[4] == 0x31 && block[5] == 0x41 && block[6] == 0x59 && block[7] == 0x26;
+	}
+
+	private static void decrypt(byte[] data, int offset, int length, int[] keys)
 	{
 		if (keys == null)
 		{
-			return data;
+			return;
 		}
 
 		Xtea xtea = new Xtea(keys);
-		return xtea.decrypt(data, length);
+		xtea.decrypt(data, offset, length);
 	}
 
 	private static byte[] encrypt(byte[] data, int length, int[] keys)
@@ -24,7 +24,10 @@
  */
 package net.runelite.cache.fs;
 
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import net.runelite.cache.index.ArchiveData;
@@ -47,6 +50,8 @@ public class Index
 	private int compression; // compression method of this index's data in 255
 
 	private final List<Archive> archives = new ArrayList<>();
+	private final IntObjectMap<Archive> archivesById = new IntObjectHashMap<>();
+	private volatile IntObjectMap<Archive> archivesByName;
 
 	public Index(int id)
 	{
@@ -147,39 +152,80 @@ public class Index
 
 	public List<Archive> getArchives()
 	{
-		return archives;
+		return Collections.unmodifiableList(archives);
 	}
 
 	public Archive addArchive(int id)
 	{
 		Archive archive = new Archive(this, id);
 		this.archives.add(archive);
+
+		// lookups return the first archive added with a given id
+		if (!archivesById.containsKey(id))
+		{
+			archivesById.put(id, archive);
+		}
+		archivesByName = null;
 		return archive;
 	}
 
-	public Archive getArchive(int id)
+	public void removeArchive(Archive archive)
 	{
-		for (Archive a : archives)
+		assert archives.contains(archive);
+		archives.remove(archive);
+
+		int id = archive.getArchiveId();
+		if (archivesById.get(id) == archive)
 		{
-			if (a.getArchiveId() == id)
+			archivesById.remove(id);
+			for (Archive a : archives)
 			{
-				return a;
+				if (a.getArchiveId() == id)
+				{
+					archivesById.put(id, a);
+					break;
+				}
 			}
 		}
-		return null;
+		archivesByName = null;
+	}
+
+	public Archive getArchive(int id)
+	{
+		return archivesById.get(id);
 	}
 
 	public Archive findArchiveByName(String name)
 	{
 		int hash = Djb2.hash(name);
-		for (Archive a : archives)
+		return getNameLookup().get(hash);
+	}
+
+	/**
+	 * Called when the name hash of one of this index's archives changes
+	 */
+	void invalidateNameLookup()
+	{
+		archivesByName = null;
+	}
+
+	private IntObjectMap<Archive> getNameLookup()
+	{
+		IntObjectMap<Archive> lookup = archivesByName;
+		if (lookup == null)
 		{
-			if (a.getNameHash() == hash)
+			// built lazily since name hashes are set after archives are added
+			lookup = new IntObjectHashMap<>(archives.size());
+			for (Archive a : archives)
 			{
-				return a;
+				if (!lookup.containsKey(a.getNameHash()))
+				{
+					lookup.put(a.getNameHash(), a);
+				}
 			}
+			archivesByName = lookup;
 		}
-		return null;
+		return lookup;
 	}
 
 	public IndexData toIndexData()
@@ -25,6 +25,7 @@
 package net.runelite.cache.fs;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public interface Storage extends AutoCloseable
 {
@@ -35,6 +36,15 @@ public interface Storage extends AutoCloseable
 
 	void load(Store store) throws IOException;
 
+	/**
+	 * Load the store, distributing the work over the given executor.
+	 * Storages which can't load in parallel just load sequentially.
+	 */
+	default void load(Store store, Executor executor) throws IOException
+	{
+		load(store);
+	}
+
 	void save(Store store) throws IOException;
 
 	byte[] loadArchive(Archive archive) throws IOException;
@@ -30,6 +30,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,10 +41,12 @@ public class DataFile implements Closeable
 	private static final int SECTOR_SIZE = 520;
 
 	private final RandomAccessFile dat;
+	private final FileChannel channel;
 
 	public DataFile(File file) throws FileNotFoundException
 	{
 		this.dat = new RandomAccessFile(file, "rw");
+		this.channel = dat.getChannel();
 	}
 
 	@Override
@@ -52,12 +55,15 @@ public class DataFile implements Closeable
 		dat.close();
 	}
 
-	public void clear() throws IOException
+	public synchronized void clear() throws IOException
 	{
 		dat.setLength(0L);
 	}
 
 	/**
+	 * Read an archive from the data file. Sectors are read with positional
+	 * reads on the file channel, so this may be called concurrently from
+	 * multiple threads.
 	 *
 	 * @param indexId expected index of archive of contents being read
 	 * @param archiveId expected archive of contents being read
@@ -68,14 +74,16 @@ public class DataFile implements Closeable
 	 */
 	public byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
 	{
-		if (sector <= 0L || dat.length() / SECTOR_SIZE < (long) sector)
+		final long datLength = channel.size();
+		if (sector <= 0L || datLength / SECTOR_SIZE < (long) sector)
 		{
-			logger.warn("bad read, dat length {}, requested sector {}", dat.length(), sector);
+			logger.warn("bad read, dat length {}, requested sector {}", datLength, sector);
 			return null;
 		}
 
-		byte[] readBuffer = new byte[SECTOR_SIZE];
-		ByteBuffer buffer = ByteBuffer.allocate(size);
+		ByteBuffer sectorBuffer = ByteBuffer.allocate(SECTOR_SIZE);
+		byte[] readBuffer = sectorBuffer.array();
+		byte[] data = new byte[size];
 
 		for (int part = 0, readBytesCount = 0, nextSector;
 			size > readBytesCount;
@@ -87,7 +95,7 @@ public class DataFile implements Closeable
 				return null;
 			}
 
-			dat.seek(SECTOR_SIZE * sector);
+			final long position = (long) SECTOR_SIZE * sector;
 
 			int dataBlockSize = size - readBytesCount;
 			byte headerSize;
@@ -102,7 +110,7 @@ public class DataFile implements Closeable
 					dataBlockSize = SECTOR_SIZE - headerSize;
 				}
 
-				int i = dat.read(readBuffer, 0, headerSize + dataBlockSize);
+				int i = readFully(sectorBuffer, position, headerSize + dataBlockSize);
 				if (i != headerSize + dataBlockSize)
 				{
 					logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
@@ -127,7 +135,7 @@ public class DataFile implements Closeable
 					dataBlockSize = SECTOR_SIZE - headerSize;
 				}
 
-				int i = dat.read(readBuffer, 0, headerSize + dataBlockSize);
+				int i = readFully(sectorBuffer, position, headerSize + dataBlockSize);
 				if (i != headerSize + dataBlockSize)
 				{
 					logger.warn("short read");
@@ -153,23 +161,49 @@ public class DataFile implements Closeable
 				return null;
 			}
 
-			if (nextSector < 0 || dat.length() / SECTOR_SIZE < (long) nextSector)
+			if (nextSector < 0 || datLength / SECTOR_SIZE < (long) nextSector)
 			{
 				logger.warn("Invalid next sector");
 				return null;
 			}
 
-			buffer.put(readBuffer, headerSize, dataBlockSize);
+			System.arraycopy(readBuffer, headerSize, data, readBytesCount, dataBlockSize);
 			readBytesCount += dataBlockSize;
 
 			++part;
 		}
 
-		buffer.flip();
-		return buffer.array();
+		return data;
 	}
 
-	public DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData) throws IOException
+	/**
+	 * Read up to length bytes at the given position into the start of
+	 * buffer without touching the shared file pointer
+	 *
+	 * @param buffer buffer to read into
+	 * @param position file position to start reading at
+	 * @param length number of bytes to read
+	 * @return number of bytes read
+	 * @throws IOException
+	 */
+	private int readFully(ByteBuffer buffer, long position, int length) throws IOException
+	{
+		buffer.clear();
+		buffer.limit(length);
+
+		while (buffer.hasRemaining())
+		{
+			int i = channel.read(buffer, position + buffer.position());
+			if (i == -1)
+			{
+				break;
+			}
+		}
+
+		return buffer.position();
+	}
+
+	public synchronized DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData) throws IOException
 	{
 		int sector;
 		int startSector;
@@ -220,7 +254,7 @@ public class DataFile implements Closeable
 				writeBuffer[7] = (byte) (nextSector >> 8);
 				writeBuffer[8] = (byte) nextSector;
 				writeBuffer[9] = (byte) indexId;
-				dat.seek(SECTOR_SIZE * sector);
+				dat.seek((long) SECTOR_SIZE * sector);
 				dat.write(writeBuffer, 0, 10);
 
 				dataToWrite = data.remaining();
@@ -244,7 +278,7 @@ public class DataFile implements Closeable
 				writeBuffer[5] = (byte) (nextSector >> 8);
 				writeBuffer[6] = (byte) nextSector;
 				writeBuffer[7] = (byte) indexId;
-				dat.seek(SECTOR_SIZE * sector);
+				dat.seek((long) SECTOR_SIZE * sector);
 				dat.write(writeBuffer, 0, 8);
 
 				dataToWrite = data.remaining();
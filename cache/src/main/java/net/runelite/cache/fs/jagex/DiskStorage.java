@@ -30,6 +30,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
@@ -38,6 +39,7 @@ import net.runelite.cache.fs.Store;
 import net.runelite.cache.index.ArchiveData;
 import net.runelite.cache.index.IndexData;
 import net.runelite.cache.util.Crc32;
+import net.runelite.cache.util.Parallel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,7 +87,7 @@ public class DiskStorage implements Storage
 		}
 	}
 
-	private IndexFile getIndex(int i) throws FileNotFoundException
+	private synchronized IndexFile getIndex(int i) throws FileNotFoundException
 	{
 		for (IndexFile indexFile : indexFiles)
 		{
@@ -109,6 +111,14 @@ public class DiskStorage implements Storage
 		}
 	}
 
+	@Override
+	public void load(Store store, Executor executor) throws IOException
+	{
+		// each index only touches its own archive list, so they can be
+		// read, decompressed and parsed independently
+		Parallel.forEach(store.getIndexes(), this::loadIndex, executor);
+	}
+
 	public byte[] readIndex(int indexId) throws IOException
 	{
 		IndexEntry entry = index255.read(indexId);
@@ -147,6 +157,11 @@ public class DiskStorage implements Storage
 		assert res.revision == -1;
 	}
 
+	/**
+	 * Load the raw archive data from disk. Reads of the index and data
+	 * files are positional, so this may be called from many threads at
+	 * once.
+	 */
 	@Override
 	public byte[] loadArchive(Archive archive) throws IOException
 	{
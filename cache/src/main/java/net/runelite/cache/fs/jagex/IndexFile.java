@@ -29,6 +29,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +44,7 @@ public class IndexFile implements Closeable
 	private final int indexFileId;
 	private final File file;
 	private final RandomAccessFile idx;
+	private final FileChannel channel;
 	private final byte[] buffer = new byte[INDEX_ENTRY_LEN];
 
 	public IndexFile(int indexFileId, File file) throws FileNotFoundException
@@ -49,6 +52,7 @@ public class IndexFile implements Closeable
 		this.indexFileId = indexFileId;
 		this.file = file;
 		this.idx = new RandomAccessFile(file, "rw");
+		this.channel = idx.getChannel();
 	}
 
 	@Override
@@ -57,7 +61,7 @@ public class IndexFile implements Closeable
 		idx.close();
 	}
 
-	public void clear() throws IOException
+	public synchronized void clear() throws IOException
 	{
 		idx.setLength(0L);
 	}
@@ -96,7 +100,7 @@ public class IndexFile implements Closeable
 
 	public synchronized void write(IndexEntry entry) throws IOException
 	{
-		idx.seek(entry.getId() * INDEX_ENTRY_LEN);
+		idx.seek((long) entry.getId() * INDEX_ENTRY_LEN);
 
 		buffer[0] = (byte) (entry.getLength() >> 16);
 		buffer[1] = (byte) (entry.getLength() >> 8);
@@ -109,18 +113,37 @@ public class IndexFile implements Closeable
 		idx.write(buffer);
 	}
 
-	public synchronized IndexEntry read(int id) throws IOException
+	/**
+	 * Read an index entry. This uses a positional read on the file channel
+	 * and so does not need to be synchronized with other readers.
+	 *
+	 * @param id archive id
+	 * @return the index entry, or null if it does not exist
+	 * @throws IOException
+	 */
+	public IndexEntry read(int id) throws IOException
 	{
-		idx.seek(id * INDEX_ENTRY_LEN);
-		int i = idx.read(buffer);
+		final long position = (long) id * INDEX_ENTRY_LEN;
+		final ByteBuffer entryBuffer = ByteBuffer.allocate(INDEX_ENTRY_LEN);
+		while (entryBuffer.hasRemaining())
+		{
+			if (channel.read(entryBuffer, position + entryBuffer.position()) == -1)
+			{
+				break;
+			}
+		}
+
+		int i = entryBuffer.position();
 		if (i != INDEX_ENTRY_LEN)
 		{
 			logger.debug("short read for id {} on index {}: {}", id, indexFileId, i);
 			return null;
 		}
 
-		int length = ((buffer[0] & 0xFF) << 16) | ((buffer[1] & 0xFF) << 8) | (buffer[2] & 0xFF);
-		int sector = ((buffer[3] & 0xFF) << 16) | ((buffer[4] & 0xFF) << 8) | (buffer[5] & 0xFF);
+		byte[] entryData = entryBuffer.array();
+
+		int length = ((entryData[0] & 0xFF) << 16) | ((entryData[1] & 0xFF) << 8) | (entryData[2] & 0xFF);
+		int sector = ((entryData[3] & 0xFF) << 16) | ((entryData[4] & 0xFF) << 8) | (entryData[5] & 0xFF);
 
 		if (length <= 0 || sector <= 0)
 		{
@@ -131,8 +154,8 @@ public class IndexFile implements Closeable
 		return new IndexEntry(this, id, sector, length);
 	}
 
-	public synchronized int getIndexCount() throws IOException
+	public int getIndexCount() throws IOException
 	{
-		return (int) (idx.length() / INDEX_ENTRY_LEN);
+		return (int) (channel.size() / INDEX_ENTRY_LEN);
 	}
 }
@@ -24,11 +24,13 @@
  */
 package net.runelite.cache.util;
 
+import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.util.Arrays;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
@@ -83,4 +85,30 @@ public class BZip2
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompress headerless bzip2 data directly into a pre-sized buffer
+	 *
+	 * @param bytes compressed data
+	 * @param offset offset of the compressed data
+	 * @param len length of the compressed data
+	 * @param out buffer to decompress into, must be exactly the decompressed size
+	 * @throws IOException if the data does not decompress to exactly the size of the buffer
+	 */
+	public static void decompress(byte[] bytes, int offset, int len, byte[] out) throws IOException
+	{
+		// feed the header through the stream rather than copying the data behind it
+		InputStream data = new SequenceInputStream(new ByteArrayInputStream(BZIP_HEADER),
+			new ByteArrayInputStream(bytes, offset, len));
+
+		try (InputStream is = new BZip2CompressorInputStream(data))
+		{
+			ByteStreams.readFully(is, out);
+
+			if (is.read() != -1)
+			{
+				throw new IOException("Decompressed data is longer than " + out.length + " bytes");
+			}
+		}
+	}
 }
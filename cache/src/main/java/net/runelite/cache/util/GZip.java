@@ -25,6 +25,7 @@
 
 package net.runelite.cache.util;
 
+import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -64,4 +65,26 @@ public class GZip
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompress gzip data directly into a pre-sized buffer
+	 *
+	 * @param bytes compressed data
+	 * @param offset offset of the compressed data
+	 * @param len length of the compressed data
+	 * @param out buffer to decompress into, must be exactly the decompressed size
+	 * @throws IOException if the data does not decompress to exactly the size of the buffer
+	 */
+	public static void decompress(byte[] bytes, int offset, int len, byte[] out) throws IOException
+	{
+		try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(bytes, offset, len)))
+		{
+			ByteStreams.readFully(is, out);
+
+			if (is.read() != -1)
+			{
+				throw new IOException("Decompressed data is longer than " + out.length + " bytes");
+			}
+		}
+	}
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Helpers for fanning out cache loading work across an executor while
+ * keeping the results in the same order as the sequential path.
+ */
+public class Parallel
+{
+	/**
+	 * Number of tasks each unit of parallelism is split into, so that
+	 * uneven work (eg. a few very large archives) still balances out.
+	 */
+	private static final int TASKS_PER_THREAD = 4;
+
+	private static final int MAX_TASKS = Runtime.getRuntime().availableProcessors() * TASKS_PER_THREAD;
+
+	@FunctionalInterface
+	public interface IOFunction<T, R>
+	{
+		R apply(T t) throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface IOConsumer<T>
+	{
+		void accept(T t) throws IOException;
+	}
+
+	/**
+	 * Apply a function to each item on the given executor.
+	 *
+	 * @param items items to apply the function to
+	 * @param function function to apply
+	 * @param executor executor to run on
+	 * @return results, in the same order as items
+	 * @throws IOException if any invocation of the function throws
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T, R> List<R> map(List<T> items, IOFunction<? super T, ? extends R> function, Executor executor) throws IOException
+	{
+		final int size = items.size();
+		final int tasks = Math.min(size, MAX_TASKS);
+		final Object[] results = new Object[size];
+
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+		for (int task = 0; task < tasks; ++task)
+		{
+			final int start = (int) ((long) size * task / tasks);
+			final int end = (int) ((long) size * (task + 1) / tasks);
+
+			futures[task] = CompletableFuture.runAsync(() ->
+			{
+				for (int i = start; i < end; ++i)
+				{
+					try
+					{
+						results[i] = function.apply(items.get(i));
+					}
+					catch (IOException ex)
+					{
+						throw new UncheckedIOException(ex);
+					}
+				}
+			}, executor);
+		}
+
+		join(futures);
+		return (List<R>) Arrays.asList(results);
+	}
+
+	/**
+	 * Run a consumer for each item on the given executor.
+	 *
+	 * @param items items to consume
+	 * @param consumer consumer to run
+	 * @param executor executor to run on
+	 * @throws IOException if any invocation of the consumer throws
+	 */
+	public static <T> void forEach(List<T> items, IOConsumer<? super T> consumer, Executor executor) throws IOException
+	{
+		map(items, item ->
+		{
+			consumer.accept(item);
+			return null;
+		}, executor);
+	}
+
+	private static void join(CompletableFuture<?>[] futures) throws IOException
+	{
+		try
+		{
+			CompletableFuture.allOf(futures).join();
+		}
+		catch (CompletionException ex)
+		{
+			Throwable cause = ex.getCause();
+			if (cause instanceof UncheckedIOException)
+			{
+				throw ((UncheckedIOException) cause).getCause();
+			}
+
+			Throwables.throwIfInstanceOf(cause, IOException.class);
+			Throwables.throwIfUnchecked(cause);
+			throw new IOException(cause);
+		}
+	}
+}
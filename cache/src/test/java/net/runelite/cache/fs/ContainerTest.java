@@ -24,10 +24,17 @@
  */
 package net.runelite.cache.fs;
 
+import com.google.common.primitives.Ints;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Random;
+import static net.runelite.cache.fs.jagex.CompressionType.BZ2;
 import static net.runelite.cache.fs.jagex.CompressionType.GZ;
+import static net.runelite.cache.fs.jagex.CompressionType.NONE;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 public class ContainerTest
@@ -52,4 +59,85 @@ public class ContainerTest
 		assertArrayEquals(data, container.data);
 	}
 
+	@Test
+	public void testDecompressInPlace() throws IOException
+	{
+		int[] keys = new int[]
+		{
+			4, 8, 15, 16
+		};
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		Container container = new Container(BZ2, 42);
+		container.compress(data, keys);
+		byte[] compressedData = container.data;
+
+		// container in the middle of a larger buffer
+		byte[] buffer = new byte[compressedData.length + 16];
+		System.arraycopy(compressedData, 0, buffer, 8, compressedData.length);
+
+		Container expected = Container.decompress(compressedData, keys);
+		container = Container.decompressInPlace(buffer, 8, compressedData.length, keys);
+		assertArrayEquals(data, container.data);
+		assertEquals(expected.crc, container.crc);
+		assertEquals(42, container.revision);
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecompressedLengthTooLarge() throws IOException
+	{
+		Container container = new Container(GZ, -1);
+		container.compress(new byte[1024], null);
+		byte[] compressedData = container.data;
+
+		// decompressed length follows the compression type and compressed length
+		System.arraycopy(Ints.toByteArray(Integer.MAX_VALUE), 0, compressedData, 5, 4);
+		Container.decompress(compressedData, null);
+	}
+
+	@Test(expected = IOException.class)
+	public void testDecompressedLengthTooSmall() throws IOException
+	{
+		Container container = new Container(BZ2, -1);
+		container.compress(new byte[1024], null);
+		byte[] compressedData = container.data;
+
+		System.arraycopy(Ints.toByteArray(1000), 0, compressedData, 5, 4);
+		Container.decompress(compressedData, null);
+	}
+
+	@Test
+	public void testCheckKeys() throws IOException
+	{
+		int[] keys = new int[]
+		{
+			4, 8, 15, 16
+		};
+		int[] badKeys = new int[]
+		{
+			23, 42, 4, 8
+		};
+		Random random = new Random(42L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		for (int compression : new int[] { GZ, BZ2 })
+		{
+			Container container = new Container(compression, -1);
+			container.compress(data, keys);
+			byte[] compressedData = container.data.clone();
+
+			assertTrue(Container.checkKeys(container.data, keys));
+			assertFalse(Container.checkKeys(container.data, badKeys));
+			assertArrayEquals(compressedData, container.data);
+		}
+
+		// uncompressed containers can't be validated, but malformed ones are rejected
+		Container container = new Container(NONE, -1);
+		container.compress(data, keys);
+		assertTrue(Container.checkKeys(container.data, badKeys));
+		assertFalse(Container.checkKeys(Arrays.copyOf(container.data, 64), keys));
+	}
 }
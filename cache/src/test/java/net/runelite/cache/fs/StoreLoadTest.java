@@ -27,6 +27,7 @@ package net.runelite.cache.fs;
 import com.google.common.io.Files;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 import net.runelite.cache.StoreLocation;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -47,6 +48,19 @@ public class StoreLoadTest
 		}
 	}
 
+	@Test
+	public void testLoadParallel() throws IOException
+	{
+		try (Store store = new Store(StoreLocation.LOCATION);
+			Store parallelStore = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+			parallelStore.loadParallel(ForkJoinPool.commonPool());
+
+			Assert.assertTrue(store.equals(parallelStore));
+		}
+	}
+
 	@Test
 	public void testSave() throws IOException
 	{
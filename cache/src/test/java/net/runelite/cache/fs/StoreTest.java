@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.util.Random;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.index.FileData;
+import net.runelite.cache.util.Djb2;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -148,4 +149,34 @@ public class StoreTest
 			}
 		}
 	}
+
+	@Test
+	public void testArchiveLookup() throws IOException
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			Index index = store.addIndex(5);
+			Archive archive = index.addArchive(3);
+			archive.setNameHash(Djb2.hash("m50_50"));
+			Archive archive2 = index.addArchive(4);
+			archive2.setNameHash(Djb2.hash("l50_50"));
+
+			Assert.assertSame(index, store.findIndex(5));
+			Assert.assertSame(archive, index.getArchive(3));
+			Assert.assertSame(archive, index.findArchiveByName("m50_50"));
+			Assert.assertSame(archive2, index.findArchiveByName("l50_50"));
+
+			archive.setNameHash(Djb2.hash("m51_50"));
+			Assert.assertNull(index.findArchiveByName("m50_50"));
+			Assert.assertSame(archive, index.findArchiveByName("m51_50"));
+
+			index.removeArchive(archive);
+			Assert.assertNull(index.getArchive(3));
+			Assert.assertNull(index.findArchiveByName("m51_50"));
+			Assert.assertSame(archive2, index.getArchive(4));
+
+			store.removeIndex(index);
+			Assert.assertNull(store.findIndex(5));
+		}
+	}
 }
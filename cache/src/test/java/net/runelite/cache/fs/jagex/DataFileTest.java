@@ -26,6 +26,11 @@ package net.runelite.cache.fs.jagex;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.fs.Container;
 import org.junit.Assert;
@@ -167,4 +172,51 @@ public class DataFileTest
 		Assert.assertEquals("testtesttesttest1", str);
 		Assert.assertEquals(42, res2.revision);
 	}
+
+	@Test
+	public void testConcurrentRead() throws Exception
+	{
+		DataFile df = new DataFile(folder.newFile());
+
+		final int archives = 64;
+		DataFileWriteResult[] results = new DataFileWriteResult[archives];
+		byte[][] expected = new byte[archives][];
+		for (int i = 0; i < archives; ++i)
+		{
+			byte[] b = new byte[1024 + i * 37];
+			for (int j = 0; j < b.length; ++j)
+			{
+				b[j] = (byte) (i ^ j);
+			}
+
+			Container container = new Container(CompressionType.NONE, -1);
+			container.compress(b, null);
+			expected[i] = container.data;
+			results[i] = df.write(7, i, container.data);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			List<Future<byte[]>> futures = new ArrayList<>();
+			for (int n = 0; n < 4; ++n)
+			{
+				for (int i = 0; i < archives; ++i)
+				{
+					final int archiveId = i;
+					futures.add(executor.submit(() -> df.read(7, archiveId, results[archiveId].sector, results[archiveId].compressedLength)));
+				}
+			}
+
+			for (int i = 0; i < futures.size(); ++i)
+			{
+				Assert.assertArrayEquals(expected[i % archives], futures.get(i).get());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+			df.close();
+		}
+	}
 }
@@ -200,4 +200,78 @@ public class ItemClient
 			throw new IOException(ex);
 		}
 	}
+
+	/**
+	 * Fetch the snapshot of all item prices
+	 *
+	 * @return the snapshot, or null on error
+	 * @throws IOException
+	 */
+	public ItemPriceSnapshot getPriceSnapshot() throws IOException
+	{
+		HttpUrl url = RuneLiteAPI.getApiBase().newBuilder()
+			.addPathSegment("item")
+			.addPathSegment("prices")
+			.addPathSegment("snapshot")
+			.build();
+
+		logger.debug("Built URI: {}", url);
+
+		Request request = new Request.Builder()
+			.url(url)
+			.build();
+
+		try (Response response = RuneLiteAPI.CLIENT.newCall(request).execute())
+		{
+			if (!response.isSuccessful())
+			{
+				logger.warn("Error looking up price snapshot: {}", response.message());
+				return null;
+			}
+
+			return ItemPriceSnapshot.decode(response.body().bytes());
+		}
+	}
+
+	/**
+	 * Fetch the item prices which have changed since the given version
+	 *
+	 * @param since version of the prices the caller has
+	 * @return the changed prices, which may be a full snapshot if the
+	 * version is unknown to the server, or null if there are no changes
+	 * or on error
+	 * @throws IOException
+	 */
+	public ItemPriceSnapshot getPriceDelta(long since) throws IOException
+	{
+		HttpUrl url = RuneLiteAPI.getApiBase().newBuilder()
+			.addPathSegment("item")
+			.addPathSegment("prices")
+			.addPathSegment("delta")
+			.addQueryParameter("since", Long.toString(since))
+			.build();
+
+		logger.debug("Built URI: {}", url);
+
+		Request request = new Request.Builder()
+			.header("If-None-Match", "\"" + since + "\"")
+			.url(url)
+			.build();
+
+		try (Response response = RuneLiteAPI.CLIENT.newCall(request).execute())
+		{
+			if (response.code() == 304)
+			{
+				return null;
+			}
+
+			if (!response.isSuccessful())
+			{
+				logger.warn("Error looking up price delta: {}", response.message());
+				return null;
+			}
+
+			return ItemPriceSnapshot.decode(response.body().bytes());
+		}
+	}
 }
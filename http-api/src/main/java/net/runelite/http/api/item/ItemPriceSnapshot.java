@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.api.item;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A versioned set of item prices, and its binary encoding.
+ * <p>
+ * The encoding is a format byte, a flags byte, the version as a long,
+ * and a varint count, followed by the item ids as ascending varint
+ * deltas and then the prices as varints. A snapshot which is not full
+ * holds only the prices which changed since an earlier version.
+ */
+public class ItemPriceSnapshot
+{
+	private static final int FORMAT = 1;
+	private static final int FLAG_FULL = 1;
+
+	private final long version;
+	private final boolean full;
+	private final int[] itemIds; // sorted
+	private final int[] prices;
+
+	/**
+	 * @param version version of the prices
+	 * @param full whether this holds every price, or only changes
+	 * @param itemIds item ids, in ascending order
+	 * @param prices price of each item
+	 */
+	public ItemPriceSnapshot(long version, boolean full, int[] itemIds, int[] prices)
+	{
+		if (itemIds.length != prices.length)
+		{
+			throw new IllegalArgumentException("item and price count differ");
+		}
+
+		this.version = version;
+		this.full = full;
+		this.itemIds = itemIds;
+		this.prices = prices;
+	}
+
+	public long getVersion()
+	{
+		return version;
+	}
+
+	public boolean isFull()
+	{
+		return full;
+	}
+
+	public int size()
+	{
+		return itemIds.length;
+	}
+
+	/**
+	 * Look up an item's price
+	 *
+	 * @param itemId item id
+	 * @return the price, or 0 if the item has no price
+	 */
+	public int getPrice(int itemId)
+	{
+		int idx = Arrays.binarySearch(itemIds, itemId);
+		return idx >= 0 ? prices[idx] : 0;
+	}
+
+	/**
+	 * Apply a delta to this snapshot
+	 *
+	 * @param delta prices changed since this snapshot's version, or a
+	 * full snapshot
+	 * @return a full snapshot at the delta's version
+	 */
+	public ItemPriceSnapshot merge(ItemPriceSnapshot delta)
+	{
+		if (delta.full)
+		{
+			return delta;
+		}
+
+		int[] mergedIds = new int[itemIds.length + delta.itemIds.length];
+		int[] mergedPrices = new int[mergedIds.length];
+		int i = 0, j = 0, k = 0;
+
+		while (i < itemIds.length || j < delta.itemIds.length)
+		{
+			if (j == delta.itemIds.length || (i < itemIds.length && itemIds[i] < delta.itemIds[j]))
+			{
+				mergedIds[k] = itemIds[i];
+				mergedPrices[k++] = prices[i++];
+			}
+			else
+			{
+				if (i < itemIds.length && itemIds[i] == delta.itemIds[j])
+				{
+					++i; // replaced by the delta
+				}
+
+				mergedIds[k] = delta.itemIds[j];
+				mergedPrices[k++] = delta.prices[j++];
+			}
+		}
+
+		return new ItemPriceSnapshot(delta.version, true,
+			Arrays.copyOf(mergedIds, k), Arrays.copyOf(mergedPrices, k));
+	}
+
+	public byte[] encode()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(10 + itemIds.length * 5);
+		out.write(FORMAT);
+		out.write(full ? FLAG_FULL : 0);
+		for (int shift = 56; shift >= 0; shift -= 8)
+		{
+			out.write((int) (version >>> shift));
+		}
+
+		writeVarInt(out, itemIds.length);
+
+		int last = 0;
+		for (int itemId : itemIds)
+		{
+			writeVarInt(out, itemId - last);
+			last = itemId;
+		}
+
+		for (int price : prices)
+		{
+			writeVarInt(out, price);
+		}
+
+		return out.toByteArray();
+	}
+
+	public static ItemPriceSnapshot decode(byte[] data) throws IOException
+	{
+		Reader reader = new Reader(data);
+
+		int format = reader.readByte();
+		if (format != FORMAT)
+		{
+			throw new IOException("unknown price snapshot format " + format);
+		}
+
+		boolean full = (reader.readByte() & FLAG_FULL) != 0;
+
+		long version = 0;
+		for (int i = 0; i < 8; ++i)
+		{
+			version = (version << 8) | reader.readByte();
+		}
+
+		int count = reader.readVarInt();
+		if (count < 0 || count > data.length)
+		{
+			throw new IOException("invalid price count " + count);
+		}
+
+		int[] itemIds = new int[count];
+		int[] prices = new int[count];
+
+		int last = 0;
+		for (int i = 0; i < count; ++i)
+		{
+			last += reader.readVarInt();
+			itemIds[i] = last;
+		}
+
+		for (int i = 0; i < count; ++i)
+		{
+			prices[i] = reader.readVarInt();
+		}
+
+		return new ItemPriceSnapshot(version, full, itemIds, prices);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value)
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static class Reader
+	{
+		private final byte[] data;
+		private int position;
+
+		Reader(byte[] data)
+		{
+			this.data = data;
+		}
+
+		int readByte() throws IOException
+		{
+			if (position >= data.length)
+			{
+				throw new IOException("truncated price snapshot");
+			}
+			return data[position++] & 0xFF;
+		}
+
+		int readVarInt() throws IOException
+		{
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7)
+			{
+				int b = readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+				{
+					return value;
+				}
+			}
+			throw new IOException("malformed varint");
+		}
+	}
+}
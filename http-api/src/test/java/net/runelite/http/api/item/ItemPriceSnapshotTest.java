@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.api.item;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ItemPriceSnapshotTest
+{
+	@Test
+	public void testEncodeDecode() throws Exception
+	{
+		ItemPriceSnapshot snapshot = new ItemPriceSnapshot(1234567890123L, true,
+			new int[]{0, 2, 995, 11802, 20997},
+			new int[]{5, 0, 1, 15_000_000, Integer.MAX_VALUE});
+
+		ItemPriceSnapshot decoded = ItemPriceSnapshot.decode(snapshot.encode());
+
+		assertEquals(1234567890123L, decoded.getVersion());
+		assertTrue(decoded.isFull());
+		assertEquals(5, decoded.size());
+		assertEquals(5, decoded.getPrice(0));
+		assertEquals(15_000_000, decoded.getPrice(11802));
+		assertEquals(Integer.MAX_VALUE, decoded.getPrice(20997));
+		assertEquals(0, decoded.getPrice(4151));
+	}
+
+	@Test
+	public void testMerge() throws Exception
+	{
+		ItemPriceSnapshot snapshot = new ItemPriceSnapshot(1L, true,
+			new int[]{2, 4, 6},
+			new int[]{20, 40, 60});
+		ItemPriceSnapshot delta = ItemPriceSnapshot.decode(new ItemPriceSnapshot(2L, false,
+			new int[]{1, 4, 7},
+			new int[]{10, 41, 70}).encode());
+
+		assertFalse(delta.isFull());
+
+		ItemPriceSnapshot merged = snapshot.merge(delta);
+
+		assertEquals(2L, merged.getVersion());
+		assertTrue(merged.isFull());
+		assertEquals(5, merged.size());
+		assertEquals(10, merged.getPrice(1));
+		assertEquals(20, merged.getPrice(2));
+		assertEquals(41, merged.getPrice(4));
+		assertEquals(60, merged.getPrice(6));
+		assertEquals(70, merged.getPrice(7));
+	}
+}
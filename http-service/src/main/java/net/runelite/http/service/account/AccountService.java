@@ -43,7 +43,6 @@ import net.runelite.http.api.ws.messages.LoginResponse;
 import net.runelite.http.service.account.beans.SessionEntry;
 import net.runelite.http.service.account.beans.UserEntry;
 import net.runelite.http.service.ws.SessionManager;
-import net.runelite.http.service.ws.WSService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -232,17 +231,13 @@ public class AccountService
 
 	private void notifySession(UUID uuid, String username)
 	{
-		WSService service = SessionManager.findSession(uuid);
-		if (service == null)
-		{
-			logger.info("Session {} logged in - but no websocket session", uuid);
-			return;
-		}
-
 		LoginResponse response = new LoginResponse();
 		response.setUsername(username);
 
-		service.send(response);
+		if (SessionManager.broadcast(uuid, response) == 0)
+		{
+			logger.info("Session {} logged in - but no websocket session", uuid);
+		}
 	}
 
 	@RequestMapping("/logout")
@@ -261,6 +256,8 @@ public class AccountService
 				.addParameter("uuid", session.getUuid().toString())
 				.executeUpdate();
 		}
+
+		auth.invalidate(session.getUuid());
 	}
 
 	@RequestMapping("/session-check")
@@ -24,7 +24,12 @@
  */
 package net.runelite.http.service.account;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import net.runelite.http.service.account.beans.SessionEntry;
 import java.sql.Timestamp;
 import java.time.Instant;
@@ -32,10 +37,13 @@ import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import net.runelite.http.api.RuneLiteAPI;
+import net.runelite.http.service.util.PendingWrites;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
 
 @Service
@@ -43,6 +51,24 @@ public class AuthFilter
 {
 	private final Sql2o sql2o;
 
+	// sessions are removed from here when they are deleted, the expiry
+	// bounds how long a session deleted elsewhere remains usable
+	private final Cache<UUID, SessionEntry> sessionCache = CacheBuilder.newBuilder()
+		.maximumSize(65536L)
+		.expireAfterWrite(10, TimeUnit.MINUTES)
+		.build();
+
+	// sessions recently deleted. A request which read a session just
+	// before it was deleted checks this after caching it, so it can not
+	// put a deleted session back into the cache
+	private final Cache<UUID, Boolean> revoked = CacheBuilder.newBuilder()
+		.maximumSize(65536L)
+		.expireAfterWrite(1, TimeUnit.MINUTES)
+		.build();
+
+	// last_used updates waiting to be flushed
+	private final PendingWrites<UUID, Instant> lastUsed = new PendingWrites<>();
+
 	@Autowired
 	public AuthFilter(@Qualifier("Runelite SQL2O") Sql2o sql2o)
 	{
@@ -60,29 +86,84 @@ public class AuthFilter
 
 		UUID uuid = UUID.fromString(runeliteAuth);
 
-		try (Connection con = sql2o.open())
+		SessionEntry cached = sessionCache.getIfPresent(uuid);
+		if (cached == null)
 		{
-			SessionEntry sessionEntry = con.createQuery("select user, uuid, created from sessions where uuid = :uuid")
-				.addParameter("uuid", uuid.toString())
-				.executeAndFetchFirst(SessionEntry.class);
+			cached = findSession(uuid);
+			if (cached == null)
+			{
+				response.sendError(401, "Access denied");
+				return null;
+			}
+
+			sessionCache.put(uuid, cached);
 
-			if (sessionEntry == null)
+			// invalidate() tombstones before it removes from the cache, so
+			// either it removes the entry just put or the tombstone is seen
+			if (revoked.getIfPresent(uuid) != null)
 			{
+				sessionCache.invalidate(uuid);
 				response.sendError(401, "Access denied");
 				return null;
 			}
+		}
+
+		Instant now = Instant.now();
+		lastUsed.put(uuid, now);
 
-			Instant now = Instant.now();
+		// the cached entry is shared between requests
+		SessionEntry sessionEntry = new SessionEntry();
+		sessionEntry.setUser(cached.getUser());
+		sessionEntry.setUuid(cached.getUuid());
+		sessionEntry.setCreated(cached.getCreated());
+		sessionEntry.setLastUsed(now);
+		return sessionEntry;
+	}
 
-			con.createQuery("update sessions set last_used = :last_used where uuid = :uuid")
-				.addParameter("last_used", Timestamp.from(now))
+	SessionEntry findSession(UUID uuid)
+	{
+		try (Connection con = sql2o.open())
+		{
+			return con.createQuery("select user, uuid, created from sessions where uuid = :uuid")
 				.addParameter("uuid", uuid.toString())
-				.executeUpdate();
+				.executeAndFetchFirst(SessionEntry.class);
+		}
+	}
 
-			sessionEntry.setLastUsed(now);
+	/**
+	 * Forget a session which has been deleted
+	 *
+	 * @param uuid session uuid
+	 */
+	public void invalidate(UUID uuid)
+	{
+		revoked.put(uuid, Boolean.TRUE);
+		sessionCache.invalidate(uuid);
+		lastUsed.remove(uuid);
+	}
 
-			return sessionEntry;
-		}
+	@Scheduled(fixedDelay = 10_000)
+	@PreDestroy
+	public void flushLastUsed()
+	{
+		lastUsed.flush(this::writeLastUsed);
 	}
 
+	private void writeLastUsed(Map<UUID, Instant> entries)
+	{
+		try (Connection con = sql2o.open())
+		{
+			Query query = con.createQuery("update sessions set last_used = :last_used where uuid = :uuid");
+
+			for (Map.Entry<UUID, Instant> entry : entries.entrySet())
+			{
+				query
+					.addParameter("last_used", Timestamp.from(entry.getValue()))
+					.addParameter("uuid", entry.getKey().toString())
+					.addToBatch();
+			}
+
+			query.executeBatch();
+		}
+	}
 }
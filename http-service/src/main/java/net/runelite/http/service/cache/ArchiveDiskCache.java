@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local disk copy of archives from the object store, laid out by hash the
+ * same way as the bucket. Archive content never changes for a given hash,
+ * so entries are never invalidated.
+ */
+@Slf4j
+class ArchiveDiskCache
+{
+	private final Path directory;
+
+	ArchiveDiskCache(Path directory) throws IOException
+	{
+		this.directory = directory;
+		Files.createDirectories(directory);
+	}
+
+	byte[] get(HashCode hash)
+	{
+		try (FileChannel channel = FileChannel.open(path(hash), StandardOpenOption.READ))
+		{
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			byte[] data = new byte[buffer.remaining()];
+			buffer.get(data);
+			return data;
+		}
+		catch (NoSuchFileException ex)
+		{
+			return null;
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to read cached archive {}", hash, ex);
+			return null;
+		}
+	}
+
+	void put(HashCode hash, byte[] data)
+	{
+		Path path = path(hash);
+
+		try
+		{
+			Files.createDirectories(path.getParent());
+
+			// write to a temporary file first so readers never see a partial archive
+			Path tmp = Files.createTempFile(path.getParent(), null, ".tmp");
+			try
+			{
+				Files.write(tmp, data);
+				Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally
+			{
+				Files.deleteIfExists(tmp);
+			}
+		}
+		catch (FileAlreadyExistsException ex)
+		{
+			// stored concurrently by another request
+		}
+		catch (IOException ex)
+		{
+			log.warn("unable to cache archive {}", hash, ex);
+		}
+	}
+
+	private Path path(HashCode hash)
+	{
+		String hashStr = hash.toString();
+		return directory.resolve(hashStr.substring(0, 2))
+			.resolve(hashStr.substring(2));
+	}
+}
@@ -24,35 +24,12 @@
  */
 package net.runelite.http.service.cache;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
-import javax.imageio.ImageIO;
-import lombok.extern.slf4j.Slf4j;
-import net.runelite.cache.ConfigType;
-import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.ItemDefinition;
-import net.runelite.cache.definitions.ModelDefinition;
 import net.runelite.cache.definitions.NpcDefinition;
 import net.runelite.cache.definitions.ObjectDefinition;
-import net.runelite.cache.definitions.SpriteDefinition;
-import net.runelite.cache.definitions.TextureDefinition;
-import net.runelite.cache.definitions.loaders.ItemLoader;
-import net.runelite.cache.definitions.loaders.ModelLoader;
-import net.runelite.cache.definitions.loaders.NpcLoader;
-import net.runelite.cache.definitions.loaders.ObjectLoader;
-import net.runelite.cache.definitions.loaders.SpriteLoader;
-import net.runelite.cache.definitions.loaders.TextureLoader;
-import net.runelite.cache.definitions.providers.ItemProvider;
-import net.runelite.cache.definitions.providers.ModelProvider;
-import net.runelite.cache.definitions.providers.SpriteProvider;
-import net.runelite.cache.definitions.providers.TextureProvider;
-import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.Container;
-import net.runelite.cache.fs.FSFile;
-import net.runelite.cache.item.ItemSpriteFactory;
 import net.runelite.http.api.cache.Cache;
 import net.runelite.http.api.cache.CacheArchive;
 import net.runelite.http.api.cache.CacheIndex;
@@ -69,12 +46,14 @@ import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/cache")
-@Slf4j
 public class CacheController
 {
 	@Autowired
 	private CacheService cacheService;
 
+	@Autowired
+	private ItemImageService itemImageService;
+
 	@RequestMapping("/")
 	public List<Cache> listCaches()
 	{
@@ -177,47 +156,26 @@ public class CacheController
 		return cacheService.getArchive(archiveEntry);
 	}
 
-	private ArchiveEntry findConfig(ConfigType config)
+	private CacheDefinitions getDefinitions() throws IOException
 	{
-		CacheEntry cache = cacheService.findMostRecent();
-		if (cache == null)
+		CacheDefinitions definitions = cacheService.getDefinitions();
+		if (definitions == null)
 		{
 			throw new NotFoundException();
 		}
 
-		IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.CONFIGS.getNumber());
-		if (indexEntry == null)
-		{
-			throw new NotFoundException();
-		}
-
-		ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, config.getId());
-		if (archiveEntry == null)
-		{
-			throw new NotFoundException();
-		}
-
-		return archiveEntry;
+		return definitions;
 	}
 
 	@RequestMapping("item/{itemId}")
 	public ItemDefinition getItem(@PathVariable int itemId) throws IOException
 	{
-		ArchiveEntry archiveEntry = findConfig(ConfigType.ITEM);
-
-		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-		if (archiveFiles == null)
-		{
-			throw new NotFoundException();
-		}
-
-		FSFile file = archiveFiles.findFile(itemId);
-		if (file == null)
+		ItemDefinition itemdef = getDefinitions().getItem(itemId);
+		if (itemdef == null)
 		{
 			throw new NotFoundException();
 		}
 
-		ItemDefinition itemdef = new ItemLoader().load(itemId, file.getContents());
 		return itemdef;
 	}
 
@@ -229,88 +187,13 @@ public class CacheController
 		@RequestParam(defaultValue = "3153952") int shadowColor
 	) throws IOException
 	{
-		final CacheEntry cache = cacheService.findMostRecent();
-		ItemProvider itemProvider = new ItemProvider()
-		{
-			@Override
-			public ItemDefinition provide(int itemId)
-			{
-				try
-				{
-					return getItem(itemId);
-				}
-				catch (IOException ex)
-				{
-					log.warn(null, ex);
-					return null;
-				}
-			}
-		};
-		ModelProvider modelProvider = new ModelProvider()
-		{
-			@Override
-			public ModelDefinition provide(int modelId) throws IOException
-			{
-				IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.MODELS.getNumber());
-				ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, modelId);
-				byte[] archiveData = Container.decompress(cacheService.getArchive(archiveEntry), null).data;
-				return new ModelLoader().load(modelId, archiveData);
-			}
-		};
-		SpriteProvider spriteProvider = new SpriteProvider()
-		{
-			@Override
-			public SpriteDefinition provide(int spriteId, int frameId)
-			{
-				try
-				{
-					IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.SPRITES.getNumber());
-					ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, spriteId);
-					byte[] archiveData = Container.decompress(cacheService.getArchive(archiveEntry), null).data;
-					SpriteDefinition[] defs = new SpriteLoader().load(spriteId, archiveData);
-					return defs[frameId];
-				}
-				catch (Exception ex)
-				{
-					log.warn(null, ex);
-					return null;
-				}
-			}
-		};
-
-		TextureProvider textureProvider2 = new TextureProvider()
+		byte[] data = itemImageService.getItemImage(itemId, quantity, border, shadowColor, false);
+		if (data == null)
 		{
-			@Override
-			public TextureDefinition[] provide()
-			{
-				try
-				{
-					IndexEntry indexEntry = cacheService.findIndexForCache(cache, IndexType.TEXTURES.getNumber());
-					ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(indexEntry, 0);
-					ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-					TextureLoader loader = new TextureLoader();
-					TextureDefinition[] defs = new TextureDefinition[archiveFiles.getFiles().size()];
-					int i = 0;
-					for (FSFile file : archiveFiles.getFiles())
-					{
-						TextureDefinition def = loader.load(file.getFileId(), file.getContents());
-						defs[i++] = def;
-					}
-					return defs;
-				}
-				catch (Exception ex)
-				{
-					log.warn(null, ex);
-					return null;
-				}
-			}
-		};
+			throw new NotFoundException();
+		}
 
-		BufferedImage itemImage = ItemSpriteFactory.createSprite(itemProvider, modelProvider, spriteProvider, textureProvider2,
-			itemId, quantity, border, shadowColor, false);
-		ByteArrayOutputStream bao = new ByteArrayOutputStream();
-		ImageIO.write(itemImage, "png", bao);
-		return ResponseEntity.ok(bao.toByteArray());
+		return ResponseEntity.ok(data);
 	}
 
 	@RequestMapping("object/{objectId}")
@@ -318,21 +201,12 @@ public class CacheController
 		@PathVariable int objectId
 	) throws IOException
 	{
-		ArchiveEntry archiveEntry = findConfig(ConfigType.OBJECT);
-
-		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-		if (archiveFiles == null)
+		ObjectDefinition objectdef = getDefinitions().getObject(objectId);
+		if (objectdef == null)
 		{
 			throw new NotFoundException();
 		}
 
-		FSFile file = archiveFiles.findFile(objectId);
-		if (file == null)
-		{
-			throw new NotFoundException();
-		}
-
-		ObjectDefinition objectdef = new ObjectLoader().load(objectId, file.getContents());
 		return objectdef;
 	}
 
@@ -341,21 +215,12 @@ public class CacheController
 		@PathVariable int npcId
 	) throws IOException
 	{
-		ArchiveEntry archiveEntry = findConfig(ConfigType.NPC);
-
-		ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
-		if (archiveFiles == null)
-		{
-			throw new NotFoundException();
-		}
-
-		FSFile file = archiveFiles.findFile(npcId);
-		if (file == null)
+		NpcDefinition npcdef = getDefinitions().getNpc(npcId);
+		if (npcdef == null)
 		{
 			throw new NotFoundException();
 		}
 
-		NpcDefinition npcdef = new NpcLoader().load(npcId, file.getContents());
 		return npcdef;
 	}
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.NpcDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+
+/**
+ * Decoded item, npc and object definitions of one cache, indexed by id.
+ * The definitions are shared and must not be modified.
+ */
+public class CacheDefinitions
+{
+	@Getter
+	private final int cacheId;
+	private final ItemDefinition[] items;
+	private final NpcDefinition[] npcs;
+	private final ObjectDefinition[] objects;
+
+	CacheDefinitions(int cacheId, ItemDefinition[] items, NpcDefinition[] npcs, ObjectDefinition[] objects)
+	{
+		this.cacheId = cacheId;
+		this.items = items;
+		this.npcs = npcs;
+		this.objects = objects;
+	}
+
+	public ItemDefinition getItem(int id)
+	{
+		return id >= 0 && id < items.length ? items[id] : null;
+	}
+
+	public NpcDefinition getNpc(int id)
+	{
+		return id >= 0 && id < npcs.length ? npcs[id] : null;
+	}
+
+	public ObjectDefinition getObject(int id)
+	{
+		return id >= 0 && id < objects.length ? objects[id] : null;
+	}
+
+	public List<ItemDefinition> getItems()
+	{
+		return Arrays.stream(items)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toList());
+	}
+}
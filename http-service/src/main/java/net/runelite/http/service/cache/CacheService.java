@@ -24,29 +24,35 @@
  */
 package net.runelite.http.service.cache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.minio.MinioClient;
-import io.minio.errors.ErrorResponseException;
-import io.minio.errors.InsufficientDataException;
-import io.minio.errors.InternalException;
-import io.minio.errors.InvalidArgumentException;
-import io.minio.errors.InvalidBucketNameException;
 import io.minio.errors.InvalidEndpointException;
 import io.minio.errors.InvalidPortException;
-import io.minio.errors.NoResponseException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.ConfigType;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.NpcDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
 import net.runelite.cache.definitions.loaders.ItemLoader;
+import net.runelite.cache.definitions.loaders.NpcLoader;
+import net.runelite.cache.definitions.loaders.ObjectLoader;
 import net.runelite.cache.fs.ArchiveFiles;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.FSFile;
@@ -58,11 +64,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
 import org.sql2o.ResultSetIterable;
 import org.sql2o.Sql2o;
-import org.xmlpull.v1.XmlPullParserException;
 
 @Service
 @Slf4j
@@ -77,14 +83,46 @@ public class CacheService
 
 	private final MinioClient minioClient;
 
+	// archives and their decoded files, keyed by the sha256 of the archive
+	private final Cache<HashCode, byte[]> archiveCache;
+	private final Cache<HashCode, ArchiveFiles> archiveFilesCache;
+	private final ArchiveDiskCache diskCache;
+
+	private volatile CacheDefinitions definitions;
+
 	@Autowired
 	public CacheService(
 		@Value("${minio.endpoint}") String minioEndpoint,
 		@Value("${minio.accesskey}") String accessKey,
-		@Value("${minio.secretkey}") String secretKey
-	) throws InvalidEndpointException, InvalidPortException
+		@Value("${minio.secretkey}") String secretKey,
+		@Value("${minio.cache.heap:67108864}") long heapCacheSize,
+		@Value("${minio.cache.dir:}") String diskCacheDir
+	) throws InvalidEndpointException, InvalidPortException, IOException
 	{
 		this.minioClient = new MinioClient(minioEndpoint, accessKey, secretKey);
+		// the heap budget is shared evenly between raw archives and their files
+		this.archiveCache = CacheBuilder.newBuilder()
+			.maximumWeight(heapCacheSize / 2)
+			.<HashCode, byte[]>weigher((k, v) -> v.length)
+			.build();
+		this.archiveFilesCache = CacheBuilder.newBuilder()
+			.maximumWeight(heapCacheSize / 2)
+			.<HashCode, ArchiveFiles>weigher((k, v) -> weigh(v))
+			.build();
+		this.diskCache = diskCacheDir.isEmpty() ? null : new ArchiveDiskCache(Paths.get(diskCacheDir));
+	}
+
+	private static int weigh(ArchiveFiles archiveFiles)
+	{
+		int size = 0;
+		for (FSFile file : archiveFiles.getFiles())
+		{
+			if (file.getContents() != null)
+			{
+				size += file.getContents().length;
+			}
+		}
+		return size;
 	}
 
 	@Bean
@@ -94,35 +132,82 @@ public class CacheService
 	}
 
 	/**
-	 * retrieve archive from storage
+	 * retrieve archive from storage. The returned array is shared
+	 * and must not be modified.
 	 *
 	 * @param archiveEntry
 	 * @return
 	 */
 	public byte[] getArchive(ArchiveEntry archiveEntry)
 	{
-		String hashStr = BaseEncoding.base16().encode(archiveEntry.getHash());
+		HashCode hash = HashCode.fromBytes(archiveEntry.getHash());
+
+		try
+		{
+			return archiveCache.get(hash, () -> loadArchive(hash));
+		}
+		catch (ExecutionException | UncheckedExecutionException ex)
+		{
+			log.warn("unable to load archive {}", hash, ex.getCause());
+			return null;
+		}
+	}
+
+	private byte[] loadArchive(HashCode hash) throws Exception
+	{
+		if (diskCache != null)
+		{
+			byte[] data = diskCache.get(hash);
+			if (data != null)
+			{
+				return data;
+			}
+		}
+
+		String hashStr = BaseEncoding.base16().encode(hash.asBytes());
 		String path = new StringBuilder()
 			.append(hashStr.substring(0, 2))
 			.append('/')
 			.append(hashStr.substring(2))
 			.toString();
 
+		byte[] data;
 		try (InputStream in = minioClient.getObject(minioBucket, path))
 		{
-			return ByteStreams.toByteArray(in);
+			data = ByteStreams.toByteArray(in);
 		}
-		catch (InvalidBucketNameException | NoSuchAlgorithmException | InsufficientDataException
-			| IOException | InvalidKeyException | NoResponseException | XmlPullParserException
-			| ErrorResponseException | InternalException | InvalidArgumentException ex)
+
+		if (!Hashing.sha256().hashBytes(data).equals(hash))
 		{
-			log.warn(null, ex);
-			return null;
+			throw new IOException("archive " + hash + " does not match its hash");
+		}
+
+		if (diskCache != null)
+		{
+			diskCache.put(hash, data);
 		}
+
+		return data;
 	}
 
+	/**
+	 * retrieve and decode the files of an archive. The returned files
+	 * are shared and must not be modified.
+	 *
+	 * @param archiveEntry
+	 * @return
+	 * @throws IOException
+	 */
 	public ArchiveFiles getArchiveFiles(ArchiveEntry archiveEntry) throws IOException
 	{
+		HashCode hash = HashCode.fromBytes(archiveEntry.getHash());
+
+		ArchiveFiles archiveFiles = archiveFilesCache.getIfPresent(hash);
+		if (archiveFiles != null)
+		{
+			return archiveFiles;
+		}
+
 		CacheDAO cacheDao = new CacheDAO();
 
 		try (Connection con = sql2o.open();
@@ -143,7 +228,7 @@ public class CacheService
 
 			byte[] decompressedData = result.data;
 
-			ArchiveFiles archiveFiles = new ArchiveFiles();
+			archiveFiles = new ArchiveFiles();
 			for (FileEntry fileEntry : files)
 			{
 				FSFile file = new FSFile(fileEntry.getFileId());
@@ -151,8 +236,10 @@ public class CacheService
 				file.setNameHash(fileEntry.getNameHash());
 			}
 			archiveFiles.loadContents(decompressedData);
-			return archiveFiles;
 		}
+
+		archiveFilesCache.put(hash, archiveFiles);
+		return archiveFiles;
 	}
 
 	public List<CacheEntry> listCaches()
@@ -230,19 +317,104 @@ public class CacheService
 		}
 	}
 
-	public List<ItemDefinition> getItems() throws IOException
+	/**
+	 * get the decoded definitions of the most recent cache. They are
+	 * built the first time they are requested, and rebuilt when a newer
+	 * cache is published.
+	 *
+	 * @return definitions, or null if there is no cache
+	 * @throws IOException
+	 */
+	public CacheDefinitions getDefinitions() throws IOException
 	{
+		CacheDefinitions defs = definitions;
+		if (defs != null)
+		{
+			return defs;
+		}
+
 		CacheEntry cache = findMostRecent();
+		if (cache == null)
+		{
+			return null;
+		}
+
+		return loadDefinitions(cache);
+	}
+
+	@Scheduled(fixedDelay = 60_000)
+	public void refreshDefinitions() throws IOException
+	{
+		CacheDefinitions defs = definitions;
+		if (defs == null)
+		{
+			// not built yet, so nothing to replace
+			return;
+		}
+
+		CacheEntry cache = findMostRecent();
+		if (cache != null && cache.getId() != defs.getCacheId())
+		{
+			loadDefinitions(cache);
+		}
+	}
+
+	private synchronized CacheDefinitions loadDefinitions(CacheEntry cache) throws IOException
+	{
+		CacheDefinitions defs = definitions;
+		if (defs != null && defs.getCacheId() == cache.getId())
+		{
+			return defs;
+		}
+
 		IndexEntry indexEntry = findIndexForCache(cache, IndexType.CONFIGS.getNumber());
-		ArchiveEntry archiveEntry = findArchiveForIndex(indexEntry, ConfigType.ITEM.getId());
+		if (indexEntry == null)
+		{
+			return null;
+		}
+
+		defs = new CacheDefinitions(cache.getId(),
+			loadConfig(indexEntry, ConfigType.ITEM, ItemDefinition[]::new, new ItemLoader()::load),
+			loadConfig(indexEntry, ConfigType.NPC, NpcDefinition[]::new, new NpcLoader()::load),
+			loadConfig(indexEntry, ConfigType.OBJECT, ObjectDefinition[]::new, new ObjectLoader()::load));
+		definitions = defs;
+
+		log.info("Loaded definitions for cache {} (revision {})", cache.getId(), cache.getRevision());
+		return defs;
+	}
+
+	private <T> T[] loadConfig(IndexEntry indexEntry, ConfigType configType,
+		IntFunction<T[]> arrayFactory, BiFunction<Integer, byte[], T> loader) throws IOException
+	{
+		ArchiveEntry archiveEntry = findArchiveForIndex(indexEntry, configType.getId());
+		if (archiveEntry == null)
+		{
+			return arrayFactory.apply(0);
+		}
+
 		ArchiveFiles archiveFiles = getArchiveFiles(archiveEntry);
-		final ItemLoader itemLoader = new ItemLoader();
-		final List<ItemDefinition> result = new ArrayList<>(archiveFiles.getFiles().size());
+		if (archiveFiles == null)
+		{
+			return arrayFactory.apply(0);
+		}
+
+		int size = 0;
 		for (FSFile file : archiveFiles.getFiles())
 		{
-			ItemDefinition itemDef = itemLoader.load(file.getFileId(), file.getContents());
-			result.add(itemDef);
+			size = Math.max(size, file.getFileId() + 1);
 		}
-		return result;
+
+		T[] defs = arrayFactory.apply(size);
+		for (FSFile file : archiveFiles.getFiles())
+		{
+			defs[file.getFileId()] = loader.apply(file.getFileId(), file.getContents());
+		}
+		return defs;
+	}
+
+	public List<ItemDefinition> getItems() throws IOException
+	{
+		CacheDefinitions defs = getDefinitions();
+		return defs != null ? defs.getItems() : Collections.emptyList();
 	}
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.ConfigType;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.definitions.ItemDefinition;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.SpriteDefinition;
+import net.runelite.cache.definitions.TextureDefinition;
+import net.runelite.cache.definitions.loaders.ItemLoader;
+import net.runelite.cache.definitions.loaders.ModelLoader;
+import net.runelite.cache.definitions.loaders.SpriteLoader;
+import net.runelite.cache.definitions.loaders.TextureLoader;
+import net.runelite.cache.definitions.providers.ItemProvider;
+import net.runelite.cache.definitions.providers.ModelProvider;
+import net.runelite.cache.definitions.providers.SpriteProvider;
+import net.runelite.cache.definitions.providers.TextureProvider;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.Container;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.item.ItemSpriteFactory;
+import net.runelite.http.service.cache.beans.ArchiveEntry;
+import net.runelite.http.service.cache.beans.CacheEntry;
+import net.runelite.http.service.cache.beans.IndexEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renders item images and caches the encoded pngs, keyed by cache and
+ * render parameters.
+ */
+@Service
+@Slf4j
+public class ItemImageService
+{
+	public static final int DEFAULT_QUANTITY = 1;
+	public static final int DEFAULT_BORDER = 1;
+	public static final int DEFAULT_SHADOW_COLOR = 3153952;
+
+	private static final byte[] NO_IMAGE = new byte[0];
+
+	private final CacheService cacheService;
+	private final boolean prerender;
+	private final Cache<ItemImageKey, byte[]> imageCache;
+	private final ExecutorService executor;
+
+	private int prerenderedCacheId = -1;
+
+	@Autowired
+	public ItemImageService(
+		CacheService cacheService,
+		@Value("${cache.images.heap:67108864}") long heapSize,
+		@Value("${cache.images.prerender:false}") boolean prerender,
+		@Value("${cache.images.threads:0}") int threads
+	)
+	{
+		this.cacheService = cacheService;
+		this.prerender = prerender;
+		this.imageCache = CacheBuilder.newBuilder()
+			.maximumWeight(heapSize)
+			.<ItemImageKey, byte[]>weigher((k, v) -> v.length + 64)
+			.build();
+		this.executor = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * get an item image from the most recent cache
+	 *
+	 * @return png data, or null if the item has no image
+	 * @throws IOException
+	 */
+	public byte[] getItemImage(int itemId, int quantity, int border, int shadowColor, boolean noted) throws IOException
+	{
+		CacheDefinitions definitions = cacheService.getDefinitions();
+		if (definitions == null)
+		{
+			return null;
+		}
+
+		ItemImageKey key = new ItemImageKey(definitions.getCacheId(), itemId, quantity, border, shadowColor, noted);
+
+		byte[] data;
+		try
+		{
+			data = imageCache.get(key, () -> render(key));
+		}
+		catch (ExecutionException | UncheckedExecutionException ex)
+		{
+			throw new IOException(ex.getCause());
+		}
+
+		return data.length > 0 ? data : null;
+	}
+
+	/**
+	 * render the default image of every item when a new cache is
+	 * published, so that the image endpoints rarely need to render.
+	 */
+	@Scheduled(fixedDelay = 60_000)
+	public void prerenderItems() throws IOException
+	{
+		if (!prerender)
+		{
+			return;
+		}
+
+		CacheDefinitions definitions = cacheService.getDefinitions();
+		if (definitions == null || definitions.getCacheId() == prerenderedCacheId)
+		{
+			return;
+		}
+
+		prerenderedCacheId = definitions.getCacheId();
+		log.info("Rendering item images for cache {}", prerenderedCacheId);
+
+		for (ItemDefinition item : definitions.getItems())
+		{
+			ItemImageKey key = new ItemImageKey(definitions.getCacheId(), item.id,
+				DEFAULT_QUANTITY, DEFAULT_BORDER, DEFAULT_SHADOW_COLOR, false);
+
+			executor.execute(() ->
+			{
+				try
+				{
+					imageCache.get(key, () -> render(key));
+				}
+				catch (ExecutionException | UncheckedExecutionException ex)
+				{
+					log.debug("unable to render item {}", key.getItemId(), ex.getCause());
+				}
+			});
+		}
+	}
+
+	private byte[] render(ItemImageKey key) throws IOException
+	{
+		CacheEntry cache = cacheService.findCache(key.getCacheId());
+		if (cache == null)
+		{
+			return NO_IMAGE;
+		}
+
+		IndexEntry configIndex = cacheService.findIndexForCache(cache, IndexType.CONFIGS.getNumber());
+		IndexEntry modelIndex = cacheService.findIndexForCache(cache, IndexType.MODELS.getNumber());
+		IndexEntry spriteIndex = cacheService.findIndexForCache(cache, IndexType.SPRITES.getNumber());
+		IndexEntry textureIndex = cacheService.findIndexForCache(cache, IndexType.TEXTURES.getNumber());
+		if (configIndex == null || modelIndex == null || spriteIndex == null || textureIndex == null)
+		{
+			return NO_IMAGE;
+		}
+
+		ArchiveEntry itemArchive = cacheService.findArchiveForIndex(configIndex, ConfigType.ITEM.getId());
+		ArchiveFiles itemFiles = itemArchive != null ? cacheService.getArchiveFiles(itemArchive) : null;
+		if (itemFiles == null)
+		{
+			return NO_IMAGE;
+		}
+
+		// the sprite factory modifies noted item definitions, so decode
+		// new ones rather than using the shared definitions
+		ItemProvider itemProvider = new ItemProvider()
+		{
+			@Override
+			public ItemDefinition provide(int itemId)
+			{
+				FSFile file = itemFiles.findFile(itemId);
+				return file != null ? new ItemLoader().load(itemId, file.getContents()) : null;
+			}
+		};
+		ModelProvider modelProvider = new ModelProvider()
+		{
+			@Override
+			public ModelDefinition provide(int modelId) throws IOException
+			{
+				ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(modelIndex, modelId);
+				byte[] archiveData = Container.decompress(cacheService.getArchive(archiveEntry), null).data;
+				return new ModelLoader().load(modelId, archiveData);
+			}
+		};
+		SpriteProvider spriteProvider = new SpriteProvider()
+		{
+			@Override
+			public SpriteDefinition provide(int spriteId, int frameId)
+			{
+				try
+				{
+					ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(spriteIndex, spriteId);
+					byte[] archiveData = Container.decompress(cacheService.getArchive(archiveEntry), null).data;
+					SpriteDefinition[] defs = new SpriteLoader().load(spriteId, archiveData);
+					return defs[frameId];
+				}
+				catch (Exception ex)
+				{
+					log.warn(null, ex);
+					return null;
+				}
+			}
+		};
+		TextureProvider textureProvider = new TextureProvider()
+		{
+			@Override
+			public TextureDefinition[] provide()
+			{
+				try
+				{
+					ArchiveEntry archiveEntry = cacheService.findArchiveForIndex(textureIndex, 0);
+					ArchiveFiles archiveFiles = cacheService.getArchiveFiles(archiveEntry);
+					TextureLoader loader = new TextureLoader();
+					TextureDefinition[] defs = new TextureDefinition[archiveFiles.getFiles().size()];
+					int i = 0;
+					for (FSFile file : archiveFiles.getFiles())
+					{
+						TextureDefinition def = loader.load(file.getFileId(), file.getContents());
+						defs[i++] = def;
+					}
+					return defs;
+				}
+				catch (Exception ex)
+				{
+					log.warn(null, ex);
+					return null;
+				}
+			}
+		};
+
+		if (itemProvider.provide(key.getItemId()) == null)
+		{
+			return NO_IMAGE;
+		}
+
+		BufferedImage itemImage = ItemSpriteFactory.createSprite(itemProvider, modelProvider, spriteProvider, textureProvider,
+			key.getItemId(), key.getQuantity(), key.getBorder(), key.getShadowColor(), key.isNoted());
+		if (itemImage == null)
+		{
+			return NO_IMAGE;
+		}
+
+		ByteArrayOutputStream bao = new ByteArrayOutputStream();
+		ImageIO.write(itemImage, "png", bao);
+		return bao.toByteArray();
+	}
+}
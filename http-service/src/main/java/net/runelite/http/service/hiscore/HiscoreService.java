@@ -24,12 +24,19 @@
  */
 package net.runelite.http.service.hiscore;
 
+import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.http.api.RuneLiteAPI;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
@@ -38,11 +45,14 @@ import net.runelite.http.api.hiscore.Skill;
 import net.runelite.http.service.util.exception.InternalServerErrorException;
 import net.runelite.http.service.util.exception.NotFoundException;
 import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -50,24 +60,80 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class HiscoreService
 {
-	private final LoadingCache<HiscoreKey, HiscoreResultBuilder> hiscoreCache = CacheBuilder.newBuilder()
-		.maximumSize(128)
-		.expireAfterWrite(1, TimeUnit.MINUTES)
-		.build(
-			new CacheLoader<HiscoreKey, HiscoreResultBuilder>()
-			{
-				@Override
-				public HiscoreResultBuilder load(HiscoreKey key) throws IOException
+	private static final int DEFAULT_CACHE_SIZE = 4096;
+	private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 8;
+
+	// results are refreshed in the background once this old
+	private static final long REFRESH_AFTER_SECONDS = 60;
+	// and are not served at all once this old
+	private static final long EXPIRE_AFTER_SECONDS = 600;
+
+	private static final long DEFAULT_PERMIT_TIMEOUT_MILLIS = 10_000;
+
+	private final OkHttpClient client = RuneLiteAPI.CLIENT.newBuilder()
+		.connectTimeout(5, TimeUnit.SECONDS)
+		.readTimeout(10, TimeUnit.SECONDS)
+		.build();
+
+	private final int maxRequestsPerHost;
+	private final long permitTimeoutMillis;
+	private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+	private final ExecutorService refreshExecutor;
+
+	// concurrent lookups of the same key share one load
+	private final LoadingCache<HiscoreKey, HiscoreResultBuilder> hiscoreCache;
+
+	public HiscoreService()
+	{
+		this(DEFAULT_CACHE_SIZE, DEFAULT_MAX_REQUESTS_PER_HOST);
+	}
+
+	@Autowired
+	public HiscoreService(
+		@Value("${hiscore.cache.size:" + DEFAULT_CACHE_SIZE + "}") int cacheSize,
+		@Value("${hiscore.requests.perhost:" + DEFAULT_MAX_REQUESTS_PER_HOST + "}") int maxRequestsPerHost
+	)
+	{
+		this(cacheSize, maxRequestsPerHost, DEFAULT_PERMIT_TIMEOUT_MILLIS, Ticker.systemTicker());
+	}
+
+	HiscoreService(int cacheSize, int maxRequestsPerHost, long permitTimeoutMillis, Ticker ticker)
+	{
+		this.maxRequestsPerHost = maxRequestsPerHost;
+		this.permitTimeoutMillis = permitTimeoutMillis;
+		this.refreshExecutor = Executors.newFixedThreadPool(maxRequestsPerHost);
+		this.hiscoreCache = CacheBuilder.newBuilder()
+			.ticker(ticker)
+			.maximumSize(cacheSize)
+			.refreshAfterWrite(REFRESH_AFTER_SECONDS, TimeUnit.SECONDS)
+			.expireAfterWrite(EXPIRE_AFTER_SECONDS, TimeUnit.SECONDS)
+			.build(CacheLoader.asyncReloading(
+				new CacheLoader<HiscoreKey, HiscoreResultBuilder>()
 				{
-					return lookupUsername(key.getUsername(), key.getEndpoint().getHiscoreURL());
-				}
-			});
+					@Override
+					public HiscoreResultBuilder load(HiscoreKey key) throws IOException
+					{
+						return lookupUsername(key.getUsername(), getHiscoreUrl(key.getEndpoint()));
+					}
+				}, refreshExecutor));
+	}
+
+	@PreDestroy
+	public void shutdown()
+	{
+		refreshExecutor.shutdownNow();
+	}
 
 	public HiscoreResultBuilder lookupUsername(String username, HiscoreEndpoint endpoint) throws ExecutionException
 	{
 		return hiscoreCache.get(new HiscoreKey(username, endpoint));
 	}
 
+	HttpUrl getHiscoreUrl(HiscoreEndpoint endpoint)
+	{
+		return endpoint.getHiscoreURL();
+	}
+
 	HiscoreResultBuilder lookupUsername(String username, HttpUrl hiscoreUrl) throws IOException
 	{
 		HttpUrl url = hiscoreUrl.newBuilder()
@@ -80,9 +146,21 @@ public class HiscoreService
 			.url(url)
 			.build();
 
-		String responseStr;
+		Semaphore permits = hostPermits.computeIfAbsent(url.host(), h -> new Semaphore(maxRequestsPerHost));
+		try
+		{
+			if (!permits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS))
+			{
+				throw new InternalServerErrorException("Too many outstanding requests to Jagex Hiscores");
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException(ex);
+		}
 
-		try (Response okresponse = RuneLiteAPI.CLIENT.newCall(okrequest).execute())
+		try (Response okresponse = client.newCall(okrequest).execute())
 		{
 			if (!okresponse.isSuccessful())
 			{
@@ -95,17 +173,22 @@ public class HiscoreService
 				}
 			}
 
-			responseStr = okresponse.body().string();
+			return parse(username, CSVFormat.DEFAULT.parse(okresponse.body().charStream()));
 		}
+		finally
+		{
+			permits.release();
+		}
+	}
 
-		CSVParser parser = CSVParser.parse(responseStr, CSVFormat.DEFAULT);
-
+	private static HiscoreResultBuilder parse(String username, CSVParser parser)
+	{
 		HiscoreResultBuilder hiscoreBuilder = new HiscoreResultBuilder();
 		hiscoreBuilder.setPlayer(username);
 
 		int count = 0;
 
-		for (CSVRecord record : parser.getRecords())
+		for (CSVRecord record : parser)
 		{
 			if (count++ >= HiscoreSkill.values().length)
 			{
@@ -38,10 +38,13 @@ import javax.servlet.http.HttpServletResponse;
 import net.runelite.http.api.item.Item;
 import net.runelite.http.api.item.ItemPrice;
 import net.runelite.http.api.item.SearchResult;
+import net.runelite.http.service.item.PriceSnapshotService.EncodedPrices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -59,13 +62,15 @@ public class ItemController
 		.build();
 
 	private final ItemService itemService;
+	private final PriceSnapshotService priceSnapshotService;
 
 	private final Supplier<ItemPrice[]> memorizedPrices;
 
 	@Autowired
-	public ItemController(ItemService itemService)
+	public ItemController(ItemService itemService, PriceSnapshotService priceSnapshotService)
 	{
 		this.itemService = itemService;
+		this.priceSnapshotService = priceSnapshotService;
 
 		memorizedPrices = Suppliers.memoizeWithExpiration(() -> itemService.fetchPrices().stream()
 			.map(priceEntry ->
@@ -228,4 +233,57 @@ public class ItemController
 			.cacheControl(CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic())
 			.body(memorizedPrices.get());
 	}
+
+	@RequestMapping(path = "/prices/snapshot", produces = "application/octet-stream")
+	public ResponseEntity<byte[]> priceSnapshot(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch)
+	{
+		EncodedPrices snapshot = priceSnapshotService.getSnapshot();
+		if (snapshot == null)
+		{
+			return ResponseEntity.notFound().build();
+		}
+
+		String etag = etag(snapshot.getVersion());
+		if (etag.equals(ifNoneMatch))
+		{
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+				.eTag(etag)
+				.build();
+		}
+
+		return ResponseEntity.ok()
+			.eTag(etag)
+			.body(snapshot.getData());
+	}
+
+	@RequestMapping(path = "/prices/delta", produces = "application/octet-stream")
+	public ResponseEntity<byte[]> priceDelta(
+		@RequestParam long since,
+		@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+	)
+	{
+		EncodedPrices delta = priceSnapshotService.getDelta(since);
+		if (delta == null)
+		{
+			return ResponseEntity.notFound().build();
+		}
+
+		long version = delta.getVersion();
+		String etag = etag(version);
+		if (since == version || etag.equals(ifNoneMatch))
+		{
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+				.eTag(etag)
+				.build();
+		}
+
+		return ResponseEntity.ok()
+			.eTag(etag)
+			.body(delta.getData());
+	}
+
+	private static String etag(long version)
+	{
+		return "\"" + version + "\"";
+	}
 }
@@ -24,18 +24,24 @@
  */
 package net.runelite.http.service.item;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.JsonParseException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.definitions.ItemDefinition;
 import net.runelite.http.api.RuneLiteAPI;
@@ -82,12 +88,28 @@ public class ItemService
 		+ "  KEY `item_fetched_time` (`item`,`fetched_time`)\n"
 		+ ") ENGINE=InnoDB";
 
+	// most recent row of prices for each item, maintained as prices are fetched
+	private static final String CREATE_LATEST_PRICE = "CREATE TABLE IF NOT EXISTS `latest_price` (\n"
+		+ "  `item` int(11) NOT NULL,\n"
+		+ "  `price` int(11) NOT NULL,\n"
+		+ "  `time` timestamp NOT NULL DEFAULT '0000-00-00 00:00:00',\n"
+		+ "  `fetched_time` timestamp NOT NULL DEFAULT '0000-00-00 00:00:00',\n"
+		+ "  PRIMARY KEY (`item`)\n"
+		+ ") ENGINE=InnoDB";
+
 	private static final int MAX_PENDING = 512;
 
+	// marks items which have no price in latestPrices
+	private static final PriceEntry NO_PRICE = new PriceEntry();
+
 	private final Sql2o sql2o;
 	private final CacheService cacheService;
 
 	private final ConcurrentLinkedQueue<PendingLookup> pendingLookups = new ConcurrentLinkedQueue<PendingLookup>();
+	private final Cache<Integer, PriceEntry> latestPrices = CacheBuilder.newBuilder()
+		.maximumSize(65536L)
+		.expireAfterWrite(30, TimeUnit.MINUTES)
+		.build();
 	private int[] tradeableItems;
 	private final Random random = new Random();
 
@@ -105,6 +127,19 @@ public class ItemService
 
 			con.createQuery(CREATE_PRICES)
 				.executeUpdate();
+
+			con.createQuery(CREATE_LATEST_PRICE)
+				.executeUpdate();
+
+			if (con.createQuery("select 1 from latest_price limit 1").executeScalar() == null)
+			{
+				// populate from the price history, this is only needed once
+				con.createQuery("insert ignore into latest_price (item, price, time, fetched_time)"
+					+ " select prices.item, prices.price, prices.time, prices.fetched_time from"
+					+ " (select item, max(time) as time from prices group by item) t"
+					+ " join prices on t.item = prices.item and t.time = prices.time")
+					.executeUpdate();
+			}
 		}
 	}
 
@@ -131,7 +166,7 @@ public class ItemService
 		}
 		else
 		{
-			return con.createQuery("select item, price, time, fetched_time from prices where item = :item order by time desc limit 1")
+			return con.createQuery("select item, price, time, fetched_time from latest_price where item = :item")
 				.addParameter("item", itemId)
 				.executeAndFetchFirst(PriceEntry.class);
 		}
@@ -139,39 +174,90 @@ public class ItemService
 
 	public PriceEntry getPrice(int itemId, Instant time)
 	{
+		if (time == null)
+		{
+			List<PriceEntry> prices = getPrices(itemId);
+			return prices.isEmpty() ? null : prices.get(0);
+		}
+
 		try (Connection con = sql2o.open())
 		{
 			return getPrice(con, itemId, time);
 		}
 	}
 
+	/**
+	 * Get the latest price of each item. Prices are served from the latest
+	 * price cache where possible, and the rest are looked up in one query.
+	 */
 	public List<PriceEntry> getPrices(int... itemIds)
 	{
+		Set<Integer> seen = new HashSet<>();
+		List<PriceEntry> priceEntries = new ArrayList<>(itemIds.length);
+		List<Integer> missing = new ArrayList<>();
+
+		for (int itemId : itemIds)
+		{
+			if (!seen.add(itemId))
+			{
+				continue;
+			}
+
+			PriceEntry priceEntry = latestPrices.getIfPresent(itemId);
+			if (priceEntry == null)
+			{
+				missing.add(itemId);
+			}
+			else if (priceEntry != NO_PRICE)
+			{
+				priceEntries.add(priceEntry);
+			}
+		}
+
+		if (missing.isEmpty())
+		{
+			return priceEntries;
+		}
+
+		List<PriceEntry> fetched;
 		try (Connection con = sql2o.open())
 		{
-			Set<Integer> seen = new HashSet<>();
-			List<PriceEntry> priceEntries = new ArrayList<>(itemIds.length);
+			StringBuilder ids = new StringBuilder();
+			for (int i = 0; i < missing.size(); ++i)
+			{
+				ids.append(i > 0 ? ",:item" : ":item").append(i);
+			}
 
-			for (int itemId : itemIds)
+			Query query = con.createQuery("select item, price, time, fetched_time from latest_price where item in (" + ids + ")");
+			for (int i = 0; i < missing.size(); ++i)
 			{
-				if (seen.contains(itemId))
-				{
-					continue;
-				}
-				seen.add(itemId);
+				query.addParameter("item" + i, missing.get(i));
+			}
 
-				PriceEntry priceEntry = getPrice(con, itemId, null);
+			fetched = query.executeAndFetch(PriceEntry.class);
+		}
 
-				if (priceEntry == null)
+		for (PriceEntry priceEntry : fetched)
+		{
+			latestPrices.put(priceEntry.getItem(), priceEntry);
+			priceEntries.add(priceEntry);
+		}
+
+		if (fetched.size() != missing.size())
+		{
+			Set<Integer> found = fetched.stream()
+				.map(PriceEntry::getItem)
+				.collect(Collectors.toSet());
+			for (int itemId : missing)
+			{
+				if (!found.contains(itemId))
 				{
-					continue;
+					latestPrices.put(itemId, NO_PRICE);
 				}
-
-				priceEntries.add(priceEntry);
 			}
-
-			return priceEntries;
 		}
+
+		return priceEntries;
 	}
 
 	public List<ItemEntry> search(String search)
@@ -259,8 +345,23 @@ public class ItemService
 			List<PriceEntry> entries = new ArrayList<>();
 			Instant now = Instant.now();
 
+			Map<Instant, Integer> history = new HashMap<>();
+			if (!rsprice.getDaily().isEmpty())
+			{
+				Instant since = Instant.ofEpochMilli(Collections.min(rsprice.getDaily().keySet()));
+				for (PriceEntry priceEntry : con.createQuery("select item, price, time, fetched_time from prices where item = :item and time >= :time")
+					.addParameter("item", itemId)
+					.addParameter("time", since)
+					.executeAndFetch(PriceEntry.class))
+				{
+					history.put(priceEntry.getTime(), priceEntry.getPrice());
+				}
+			}
+
 			Query query = con.createQuery("insert into prices (item, price, time, fetched_time) values (:item, :price, :time, :fetched_time) "
 				+ "ON DUPLICATE KEY UPDATE price = VALUES(price), fetched_time = VALUES(fetched_time)");
+			int changed = 0;
+			PriceEntry latest = null;
 
 			for (Map.Entry<Long, Integer> entry : rsprice.getDaily().entrySet())
 			{
@@ -276,17 +377,53 @@ public class ItemService
 				priceEntry.setFetched_time(now);
 				entries.add(priceEntry);
 
+				if (latest == null || time.isAfter(latest.getTime()))
+				{
+					latest = priceEntry;
+				}
+
+				Integer previous = history.get(time);
+				if (previous != null && previous == price)
+				{
+					continue; // unchanged
+				}
+
 				query
 					.addParameter("item", itemId)
 					.addParameter("price", price)
 					.addParameter("time", time)
 					.addParameter("fetched_time", now)
 					.addToBatch();
+				++changed;
+			}
+
+			if (changed > 0)
+			{
+				query.executeBatch();
+			}
+
+			if (latest != null)
+			{
+				// price is assigned before time, so it compares against the old time
+				con.createQuery("insert into latest_price (item, price, time, fetched_time) values (:item, :price, :time, :fetched_time) "
+					+ "ON DUPLICATE KEY UPDATE price = IF(VALUES(time) >= time, VALUES(price), price), "
+					+ "time = GREATEST(time, VALUES(time)), fetched_time = VALUES(fetched_time)")
+					.addParameter("item", itemId)
+					.addParameter("price", latest.getPrice())
+					.addParameter("time", latest.getTime())
+					.addParameter("fetched_time", now)
+					.executeUpdate();
 			}
 
-			query.executeBatch();
 			con.commit(false);
 
+			if (latest != null)
+			{
+				latestPrices.put(itemId, latest);
+			}
+
+			log.debug("Fetched {} prices for item {}, {} changed", entries.size(), itemId, changed);
+
 			return entries;
 		}
 	}
@@ -295,8 +432,15 @@ public class ItemService
 	{
 		try (Connection con = sql2o.beginTransaction())
 		{
-			Query query = con.createQuery("select t2.item, t2.time, prices.price, prices.fetched_time from (select t1.item as item, max(t1.time) as time from prices t1 group by item) t2 join prices on t2.item=prices.item and t2.time=prices.time");
+			Query query = con.createQuery("select item, price, time, fetched_time from latest_price");
 			List<PriceEntry> entries = query.executeAndFetch(PriceEntry.class);
+
+			// share the snapshot with batch price lookups
+			for (PriceEntry priceEntry : entries)
+			{
+				latestPrices.put(priceEntry.getItem(), priceEntry);
+			}
+
 			return entries;
 		}
 	}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.item;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.http.api.item.ItemPriceSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the latest price of every item as a versioned binary snapshot,
+ * and tracks which version each price last changed in so clients can
+ * fetch only the prices changed since the version they have.
+ */
+@Service
+@Slf4j
+public class PriceSnapshotService
+{
+	/**
+	 * Encoded prices along with the version they are at
+	 */
+	@Value
+	static class EncodedPrices
+	{
+		private long version;
+		private byte[] data;
+	}
+
+	private final ItemService itemService;
+
+	private final Map<Integer, Integer> prices = new TreeMap<>();
+	private final Map<Integer, Long> changedVersions = new HashMap<>();
+	// deltas already encoded for the current version, by since version
+	private final Cache<Long, byte[]> deltas = CacheBuilder.newBuilder()
+		.maximumSize(64L)
+		.build();
+
+	private long baseVersion; // version of the first snapshot since startup
+	private final AtomicReference<EncodedPrices> snapshot = new AtomicReference<>();
+
+	@Autowired
+	public PriceSnapshotService(ItemService itemService)
+	{
+		this.itemService = itemService;
+	}
+
+	@Scheduled(fixedDelay = 300_000) // 5 minutes
+	public synchronized void refresh()
+	{
+		EncodedPrices current = snapshot.get();
+		long newVersion = Math.max(System.currentTimeMillis(), current != null ? current.getVersion() + 1 : 0);
+		int changed = 0;
+
+		for (PriceEntry priceEntry : itemService.fetchPrices())
+		{
+			Integer old = prices.put(priceEntry.getItem(), priceEntry.getPrice());
+			if (old == null || old != priceEntry.getPrice())
+			{
+				changedVersions.put(priceEntry.getItem(), newVersion);
+				++changed;
+			}
+		}
+
+		if (changed == 0)
+		{
+			return;
+		}
+
+		if (baseVersion == 0)
+		{
+			baseVersion = newVersion;
+		}
+
+		snapshot.set(new EncodedPrices(newVersion, encode(newVersion, true, prices)));
+		deltas.invalidateAll();
+
+		log.debug("Price snapshot is now version {}, {} of {} prices changed", newVersion, changed, prices.size());
+	}
+
+	/**
+	 * @return the encoded snapshot of every price, or null if no
+	 * prices are known
+	 */
+	public EncodedPrices getSnapshot()
+	{
+		EncodedPrices current = snapshot.get();
+		if (current == null)
+		{
+			refresh();
+			current = snapshot.get();
+		}
+		return current;
+	}
+
+	/**
+	 * Get the prices which have changed since the given version. If the
+	 * version is not known, the full snapshot is returned instead.
+	 *
+	 * @param since version the client has
+	 * @return the encoded delta or snapshot, or null if no prices are
+	 * known
+	 */
+	public synchronized EncodedPrices getDelta(long since)
+	{
+		EncodedPrices current = getSnapshot();
+		if (current == null || since < baseVersion || since > current.getVersion())
+		{
+			return current;
+		}
+
+		byte[] delta = deltas.getIfPresent(since);
+		if (delta == null)
+		{
+			Map<Integer, Integer> changed = new TreeMap<>();
+			for (Map.Entry<Integer, Long> entry : changedVersions.entrySet())
+			{
+				if (entry.getValue() > since)
+				{
+					changed.put(entry.getKey(), prices.get(entry.getKey()));
+				}
+			}
+
+			delta = encode(current.getVersion(), false, changed);
+			deltas.put(since, delta);
+		}
+		return new EncodedPrices(current.getVersion(), delta);
+	}
+
+	/**
+	 * @param prices prices by item id, in ascending item id order
+	 */
+	private static byte[] encode(long version, boolean full, Map<Integer, Integer> prices)
+	{
+		int[] itemIds = new int[prices.size()];
+		int[] itemPrices = new int[prices.size()];
+		int i = 0;
+
+		for (Map.Entry<Integer, Integer> entry : prices.entrySet())
+		{
+			itemIds[i] = entry.getKey();
+			itemPrices[i++] = entry.getValue();
+		}
+
+		return new ItemPriceSnapshot(version, full, itemIds, itemPrices).encode();
+	}
+}
@@ -24,69 +24,53 @@
  */
 package net.runelite.http.service.kc;
 
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.sql2o.Connection;
 import org.sql2o.Sql2o;
 
 @Service
 public class KillCountService
 {
-	private static final String CREATE = "CREATE TABLE IF NOT EXISTS `kc` (\n" +
-		"  `name` varchar(32) NOT NULL,\n" +
-		"  `boss` varchar(32) NOT NULL,\n" +
-		"  `kc` int(11) NOT NULL,\n" +
-		"  `time` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),\n" +
-		"   UNIQUE KEY `name` (`name`, `boss`),\n" +
-		"   KEY `time` (`time`)\n" +
-		") ENGINE=InnoDB;";
-
-	private final Sql2o sql2o;
+	private final KillCountStore store;
 
 	@Autowired
-	public KillCountService(@Qualifier("Runelite SQL2O") Sql2o sql2o)
+	public KillCountService(
+		@Qualifier("Runelite SQL2O") Sql2o sql2o,
+		@Value("${kc.store:memory}") String storeType,
+		@Value("${kc.store.size:65536}") int storeSize
+	)
 	{
-		this.sql2o = sql2o;
-
-		try (Connection con = sql2o.open())
+		switch (storeType)
 		{
-			con.createQuery(CREATE)
-				.executeUpdate();
+			case "memory":
+				store = new MemoryKillCountStore(Ticker.systemTicker(), 2, TimeUnit.MINUTES, storeSize);
+				break;
+			case "sql":
+				store = new SqlKillCountStore(sql2o);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown kill count store: " + storeType);
 		}
 	}
 
 	public Integer getKc(String name, String boss)
 	{
-		try (Connection con = sql2o.open())
-		{
-			return con.createQuery("select kc from kc where name = :name and boss = :boss")
-				.addParameter("name", name)
-				.addParameter("boss", boss)
-				.executeScalar(Integer.class);
-		}
+		return store.getKc(name, boss);
 	}
 
 	public void setKc(String name, String boss, int kc)
 	{
-		try (Connection con = sql2o.open())
-		{
-			con.createQuery("insert into kc (name, boss, kc) values (:name, :boss, :kc) on duplicate key update kc = VALUES(kc)")
-				.addParameter("name", name)
-				.addParameter("boss", boss)
-				.addParameter("kc", kc)
-				.executeUpdate();
-		}
+		store.setKc(name, boss, kc);
 	}
 
 	public void purge()
 	{
-		try (Connection con = sql2o.open())
-		{
-			con.createQuery("delete from kc where time < (now() - interval 2 minute);")
-				.executeUpdate();
-		}
+		store.purge();
 	}
 
 	@Scheduled(fixedDelay = 60_000)
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.kc;
+
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+
+/**
+ * Kill counts held in memory. Keys are filed on a timing wheel by the
+ * second they expire on, so purging only visits the slots which have
+ * passed since the last purge. When the store is full the kill counts
+ * closest to expiring are evicted.
+ */
+class MemoryKillCountStore implements KillCountStore
+{
+	private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	@AllArgsConstructor
+	private static class Entry
+	{
+		private final int kc;
+		private final long expires; // tick
+	}
+
+	private final Ticker ticker;
+	private final long ttl; // ticks
+	private final int maxSize;
+	private final Map<KillCountKey, Entry> entries = new ConcurrentHashMap<>();
+	private final List<Set<KillCountKey>> wheel;
+	private long lastTick;
+
+	MemoryKillCountStore(Ticker ticker, long duration, TimeUnit unit, int maxSize)
+	{
+		this.ticker = ticker;
+		this.ttl = Math.max(1, (unit.toNanos(duration) + TICK_NANOS - 1) / TICK_NANOS);
+		this.maxSize = maxSize;
+		// one extra slot so that a new entry never lands in the slot being expired
+		this.wheel = new ArrayList<>((int) ttl + 1);
+		for (int i = 0; i <= ttl; ++i)
+		{
+			wheel.add(new HashSet<>());
+		}
+		this.lastTick = tick();
+	}
+
+	@Override
+	public Integer getKc(String name, String boss)
+	{
+		Entry entry = entries.get(new KillCountKey(name, boss));
+		if (entry == null || entry.expires <= tick())
+		{
+			return null;
+		}
+
+		return entry.kc;
+	}
+
+	@Override
+	public synchronized void setKc(String name, String boss, int kc)
+	{
+		long now = tick();
+		advance(now);
+
+		KillCountKey key = new KillCountKey(name, boss);
+		if (!entries.containsKey(key))
+		{
+			makeRoom(now);
+		}
+
+		long expires = now + ttl;
+		entries.put(key, new Entry(kc, expires));
+		slot(expires).add(key);
+	}
+
+	@Override
+	public synchronized void purge()
+	{
+		advance(tick());
+	}
+
+	int size()
+	{
+		return entries.size();
+	}
+
+	private long tick()
+	{
+		return ticker.read() / TICK_NANOS;
+	}
+
+	private Set<KillCountKey> slot(long tick)
+	{
+		return wheel.get((int) (tick % wheel.size()));
+	}
+
+	/**
+	 * expire the slots of every tick since the last advance
+	 */
+	private void advance(long now)
+	{
+		// after a full turn of the wheel every slot has passed
+		long from = Math.max(lastTick + 1, now - wheel.size() + 1);
+		for (long t = from; t <= now; ++t)
+		{
+			expire(slot(t), now);
+		}
+		lastTick = Math.max(lastTick, now);
+	}
+
+	private void expire(Set<KillCountKey> slot, long now)
+	{
+		for (Iterator<KillCountKey> it = slot.iterator(); it.hasNext();)
+		{
+			KillCountKey key = it.next();
+			Entry entry = entries.get(key);
+			if (entry != null && entry.expires <= now)
+			{
+				entries.remove(key);
+				it.remove();
+			}
+			else if (entry == null || slot(entry.expires) != slot)
+			{
+				// updated since, and filed under its new expiry
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * evict the entries closest to expiring until there is room for
+	 * another
+	 */
+	private void makeRoom(long now)
+	{
+		for (long t = now + 1; entries.size() >= maxSize && t <= now + ttl; ++t)
+		{
+			Set<KillCountKey> slot = slot(t);
+			for (KillCountKey key : slot)
+			{
+				Entry entry = entries.get(key);
+				if (entry != null && entry.expires == t)
+				{
+					entries.remove(key);
+				}
+			}
+			slot.clear();
+		}
+	}
+}
@@ -64,13 +64,11 @@ public class SessionController
 	@RequestMapping("/ping")
 	public ResponseEntity ping(@RequestParam("session") UUID uuid)
 	{
-		SessionEntry sessionEntry = sessionService.findSessionByUUID(uuid);
-		if (sessionEntry == null)
+		if (!sessionService.updateLast(uuid))
 		{
 			return ResponseEntity.notFound().build();
 		}
 
-		sessionService.updateLast(uuid);
 		return ResponseEntity.ok().build();
 	}
 
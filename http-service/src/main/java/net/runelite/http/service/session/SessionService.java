@@ -24,26 +24,61 @@
  */
 package net.runelite.http.service.session;
 
+import com.google.common.base.Suppliers;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.http.service.util.PendingWrites;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
 
 @Service
+@Slf4j
 public class SessionService
 {
+	private static final Duration SESSION_TIMEOUT = Duration.ofMinutes(5);
+
 	private final Sql2o sql2o;
 
+	// last heartbeat of every active session
+	private final Map<UUID, Instant> lastSeen = new ConcurrentHashMap<>();
+	// heartbeats not yet written to the database
+	private final PendingWrites<UUID, Instant> pending = new PendingWrites<>();
+
+	// sessions of all instances, not only the ones seen by this one
+	private final Supplier<Integer> count = Suppliers.memoizeWithExpiration(this::countSessions, 10, TimeUnit.SECONDS);
+
 	@Autowired
 	public SessionService(
 		@Qualifier("Runelite SQL2O") Sql2o sql2o
 	)
 	{
 		this.sql2o = sql2o;
+
+		try (Connection con = sql2o.open())
+		{
+			List<SessionEntry> sessions = con.createQuery("select uuid, last from session")
+				.executeAndFetch(SessionEntry.class);
+
+			for (SessionEntry session : sessions)
+			{
+				lastSeen.put(session.getUuid(), session.getLast());
+			}
+
+			log.debug("Loaded {} sessions", sessions.size());
+		}
 	}
 
 	public void createSession(SessionEntry session)
@@ -58,6 +93,8 @@ public class SessionService
 				.addParameter("last", session.getLast())
 				.executeUpdate();
 		}
+
+		lastSeen.put(session.getUuid(), session.getLast());
 	}
 
 	public SessionEntry findSessionByUUID(UUID id)
@@ -78,22 +115,81 @@ public class SessionService
 				.addParameter("uuid", session.getUuid().toString())
 				.executeUpdate();
 		}
+
+		lastSeen.remove(session.getUuid());
+		pending.remove(session.getUuid());
 	}
 
-	public void updateLast(UUID session)
+	/**
+	 * Record a heartbeat for a session. The heartbeat is written to the
+	 * database on the next flush.
+	 *
+	 * @param session session uuid
+	 * @return false if the session does not exist
+	 */
+	public boolean updateLast(UUID session)
+	{
+		Instant last = Instant.now();
+
+		if (lastSeen.replace(session, last) == null)
+		{
+			// not in memory, it may have been created by another instance
+			if (findSessionByUUID(session) == null)
+			{
+				return false;
+			}
+
+			lastSeen.put(session, last);
+		}
+
+		pending.put(session, last);
+		return true;
+	}
+
+	@Scheduled(fixedDelay = 15_000)
+	@PreDestroy
+	public void flush()
+	{
+		int count = pending.flush(this::writeHeartbeats);
+		if (count > 0)
+		{
+			log.debug("Flushed {} session heartbeats", count);
+		}
+	}
+
+	private void writeHeartbeats(Map<UUID, Instant> heartbeats)
 	{
 		try (Connection con = sql2o.open())
 		{
-			Instant last = Instant.now();
-			con.createQuery("update session set last = :last where uuid = :uuid")
-				.addParameter("last", last)
-				.addParameter("uuid", session.toString())
-				.executeUpdate();
+			Query query = con.createQuery("update session set last = :last where uuid = :uuid");
+
+			for (Map.Entry<UUID, Instant> entry : heartbeats.entrySet())
+			{
+				query
+					.addParameter("last", entry.getValue())
+					.addParameter("uuid", entry.getKey().toString())
+					.addToBatch();
+			}
+
+			query.executeBatch();
 		}
 	}
 
 	private void deleteExpired()
 	{
+		Instant cutoff = Instant.now().minus(SESSION_TIMEOUT);
+
+		for (Map.Entry<UUID, Instant> entry : lastSeen.entrySet())
+		{
+			if (entry.getValue().isBefore(cutoff))
+			{
+				lastSeen.remove(entry.getKey(), entry.getValue());
+			}
+		}
+
+		// write out heartbeats first so live sessions aren't deleted
+		flush();
+
 		try (Connection con = sql2o.open())
 		{
 			con.createQuery("delete from session where last + interval 5 minute < current_timestamp()")
@@ -102,6 +198,11 @@ public class SessionService
 	}
 
 	public int getCount()
+	{
+		return count.get();
+	}
+
+	private int countSessions()
 	{
 		try (Connection con = sql2o.open())
 		{
@@ -24,11 +24,7 @@
  */
 package net.runelite.http.service.sprite;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -42,27 +38,14 @@ public class SpriteController
 	@Autowired
 	private SpriteService spriteService;
 
-	private final LoadingCache<Integer, byte[]> spriteCache = CacheBuilder.newBuilder()
-		.maximumSize(1024L)
-		.expireAfterWrite(10, TimeUnit.MINUTES)
-		.build(new CacheLoader<Integer, byte[]>()
-		{
-			@Override
-			public byte[] load(Integer key) throws Exception
-			{
-				byte[] data = spriteService.getImagePng(key >>> 16, key & 0xffff);
-				return data != null ? data : new byte[0];
-			}
-		});
-
 	@RequestMapping(produces = "image/png")
 	public ResponseEntity<byte[]> getSprite(
 		@RequestParam int spriteId,
 		@RequestParam(defaultValue = "0") int frameId
 	) throws IOException
 	{
-		byte[] data = spriteCache.getUnchecked(spriteId << 16 | frameId);
-		if (data == null || data.length == 0)
+		byte[] data = spriteService.getImagePng(spriteId, frameId);
+		if (data == null)
 		{
 			return ResponseEntity.notFound().build();
 		}
@@ -24,9 +24,16 @@
  */
 package net.runelite.http.service.sprite;
 
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import javax.imageio.ImageIO;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.SpriteDefinition;
@@ -43,9 +50,20 @@ import org.springframework.stereotype.Service;
 @Service
 public class SpriteService
 {
+	private static final byte[] NO_IMAGE = new byte[0];
+
 	@Autowired
 	private CacheService cacheService;
 
+	// encoded pngs, keyed by cache so a new cache is never served old sprites
+	private final Cache<SpriteKey, byte[]> spriteCache = CacheBuilder.newBuilder()
+		.maximumWeight(16 * 1024 * 1024)
+		.<SpriteKey, byte[]>weigher((k, v) -> v.length + 64)
+		.build();
+
+	// most recent cache, so serving a cached png needs no database access
+	private final Supplier<CacheEntry> mostRecent = Suppliers.memoizeWithExpiration(() -> cacheService.findMostRecent(), 60, TimeUnit.SECONDS);
+
 	public SpriteDefinition getSprite(int spriteId, int frameId) throws IOException
 	{
 		CacheEntry cache = cacheService.findMostRecent();
@@ -54,6 +72,11 @@ public class SpriteService
 			return null;
 		}
 
+		return getSprite(cache, spriteId, frameId);
+	}
+
+	private SpriteDefinition getSprite(CacheEntry cache, int spriteId, int frameId) throws IOException
+	{
 		IndexEntry index = cacheService.findIndexForCache(cache, IndexType.SPRITES.getNumber());
 		if (index == null)
 		{
@@ -97,12 +120,36 @@ public class SpriteService
 
 	public byte[] getImagePng(int spriteId, int frameId) throws IOException
 	{
-		BufferedImage image = getImage(spriteId, frameId);
-		if (image == null)
+		CacheEntry cache = mostRecent.get();
+		if (cache == null)
 		{
 			return null;
 		}
 
+		SpriteKey key = new SpriteKey(cache.getId(), spriteId, frameId);
+
+		byte[] data;
+		try
+		{
+			data = spriteCache.get(key, () -> renderPng(cache, key));
+		}
+		catch (ExecutionException | UncheckedExecutionException ex)
+		{
+			throw new IOException(ex.getCause());
+		}
+
+		return data.length > 0 ? data : null;
+	}
+
+	private byte[] renderPng(CacheEntry cache, SpriteKey key) throws IOException
+	{
+		SpriteDefinition sprite = getSprite(cache, key.getSpriteId(), key.getFrameId());
+		if (sprite == null)
+		{
+			return NO_IMAGE;
+		}
+
+		BufferedImage image = getSpriteImage(sprite);
 		ByteArrayOutputStream bao = new ByteArrayOutputStream();
 		ImageIO.write(image, "png", bao);
 		return bao.toByteArray();
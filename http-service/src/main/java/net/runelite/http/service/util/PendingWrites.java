@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Latest value of each key waiting to be written out in a batch. Writes
+ * which fail are put back so that they are retried on the next flush.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class PendingWrites<K, V>
+{
+	private final Map<K, V> pending = new ConcurrentHashMap<>();
+
+	public void put(K key, V value)
+	{
+		pending.put(key, value);
+	}
+
+	public void remove(K key)
+	{
+		pending.remove(key);
+	}
+
+	public int size()
+	{
+		return pending.size();
+	}
+
+	/**
+	 * Take all pending values and pass them to the writer. If the writer
+	 * throws, the values are put back, unless their key has been queued
+	 * again in the meantime, and the exception is rethrown.
+	 *
+	 * @param writer writes the values
+	 * @return number of values written
+	 */
+	public int flush(Consumer<Map<K, V>> writer)
+	{
+		Map<K, V> drained = new LinkedHashMap<>();
+		for (Map.Entry<K, V> entry : pending.entrySet())
+		{
+			// leave the entry if it was updated again since being read
+			if (pending.remove(entry.getKey(), entry.getValue()))
+			{
+				drained.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		if (drained.isEmpty())
+		{
+			return 0;
+		}
+
+		try
+		{
+			writer.accept(drained);
+		}
+		catch (RuntimeException | Error ex)
+		{
+			drained.forEach(pending::putIfAbsent);
+			throw ex;
+		}
+
+		return drained.size();
+	}
+}
@@ -26,36 +26,38 @@ package net.runelite.http.service.worlds;
 
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
-import lombok.extern.slf4j.Slf4j;
 import net.runelite.http.api.worlds.WorldResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/worlds")
-@Slf4j
 public class WorldController
 {
 	@Autowired
 	private WorldsService worldsService;
 
-	private WorldResult worldResult;
-
 	@RequestMapping
-	public ResponseEntity<WorldResult> listWorlds() throws IOException
+	public ResponseEntity<WorldResult> listWorlds(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) throws IOException
 	{
+		WorldsService.Snapshot snapshot = worldsService.getSnapshot();
+
+		if (snapshot.getEtag().equals(ifNoneMatch))
+		{
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+				.cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES).cachePublic())
+				.eTag(snapshot.getEtag())
+				.build();
+		}
+
 		return ResponseEntity.ok()
 			.cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES).cachePublic())
-			.body(worldResult);
-	}
-
-	@Scheduled(fixedDelay = 60_000L)
-	public void refreshWorlds() throws IOException
-	{
-		worldResult = worldsService.getWorlds();
+			.eTag(snapshot.getEtag())
+			.body(snapshot.getResult());
 	}
 }
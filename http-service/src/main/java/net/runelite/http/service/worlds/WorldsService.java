@@ -24,11 +24,16 @@
  */
 package net.runelite.http.service.worlds;
 
+import com.google.common.hash.Hashing;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Value;
 import net.runelite.http.api.RuneLiteAPI;
 import net.runelite.http.api.worlds.World;
 import net.runelite.http.api.worlds.WorldResult;
@@ -36,6 +41,7 @@ import net.runelite.http.api.worlds.WorldType;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.Response;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -43,9 +49,67 @@ public class WorldsService
 {
 	private static final HttpUrl WORLD_URL = HttpUrl.parse("http://www.runescape.com/g=oldscape/slr.ws?order=LPWM");
 
+	@Value
+	static class Snapshot
+	{
+		private WorldResult result;
+		private String etag;
+	}
+
 	private HttpUrl url = WORLD_URL;
 
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+	private final Lock fetchLock = new ReentrantLock();
+
 	public WorldResult getWorlds() throws IOException
+	{
+		return getSnapshot().getResult();
+	}
+
+	/**
+	 * get the most recently fetched world list, fetching it if it hasn't
+	 * been yet
+	 */
+	Snapshot getSnapshot() throws IOException
+	{
+		Snapshot current = snapshot.get();
+		if (current != null)
+		{
+			return current;
+		}
+
+		fetchLock.lock();
+		try
+		{
+			current = snapshot.get();
+			return current != null ? current : fetch();
+		}
+		finally
+		{
+			fetchLock.unlock();
+		}
+	}
+
+	@Scheduled(fixedDelay = 60_000L)
+	public void refresh() throws IOException
+	{
+		// skip if a fetch is already in flight
+		if (!fetchLock.tryLock())
+		{
+			return;
+		}
+
+		try
+		{
+			fetch();
+		}
+		finally
+		{
+			fetchLock.unlock();
+		}
+	}
+
+	private Snapshot fetch() throws IOException
 	{
 		Request okrequest = new Request.Builder()
 			.url(url)
@@ -55,9 +119,30 @@ public class WorldsService
 
 		try (Response okresponse = RuneLiteAPI.CLIENT.newCall(okrequest).execute())
 		{
+			if (!okresponse.isSuccessful())
+			{
+				throw new IOException("Unable to fetch world list: " + okresponse.message());
+			}
+
 			b = okresponse.body().bytes();
 		}
 
+		String etag = "\"" + Hashing.sha256().hashBytes(b).toString().substring(0, 32) + "\"";
+
+		Snapshot current = snapshot.get();
+		if (current != null && current.getEtag().equals(etag))
+		{
+			// unchanged, so don't parse it again
+			return current;
+		}
+
+		Snapshot next = new Snapshot(parse(b), etag);
+		snapshot.set(next);
+		return next;
+	}
+
+	private static WorldResult parse(byte[] b)
+	{
 		List<World> worlds = new ArrayList<>();
 		ByteBuffer buf = ByteBuffer.wrap(b);
 
@@ -24,13 +24,18 @@
  */
 package net.runelite.http.service.ws;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import net.runelite.http.api.ws.WebsocketMessage;
 
 public class SessionManager
 {
-	private static final ConcurrentMap<UUID, WSService> sessions = new ConcurrentHashMap<>();
+	// a session may be connected more than once, such as when two clients share it
+	private static final ConcurrentMap<UUID, Set<WSService>> sessions = new ConcurrentHashMap<>();
+	private static final WSStats stats = new WSStats();
 
 	public static void changeSessionUID(WSService service, UUID uuid)
 	{
@@ -38,7 +43,15 @@ public class SessionManager
 		{
 			remove(service);
 			service.setUuid(uuid);
-			sessions.put(uuid, service);
+			sessions.compute(uuid, (k, services) ->
+			{
+				if (services == null)
+				{
+					services = ConcurrentHashMap.newKeySet();
+				}
+				services.add(service);
+				return services;
+			});
 		}
 	}
 
@@ -49,14 +62,97 @@ public class SessionManager
 			UUID current = service.getUuid();
 			if (current != null)
 			{
-				sessions.remove(current);
+				sessions.computeIfPresent(current, (k, services) ->
+				{
+					services.remove(service);
+					return services.isEmpty() ? null : services;
+				});
 				service.setUuid(null);
 			}
 		}
 	}
 
-	public static WSService findSession(UUID uuid)
+	/**
+	 * Send a message to every connection of a session. The message is
+	 * serialized once and queued on each connection without blocking on
+	 * slow clients.
+	 *
+	 * @param uuid session uuid
+	 * @param message message to send
+	 * @return number of connections the message was queued for
+	 */
+	public static int broadcast(UUID uuid, WebsocketMessage message)
+	{
+		Set<WSService> services = sessions.get(uuid);
+		if (services == null)
+		{
+			return 0;
+		}
+
+		return broadcast(services, WSService.toJson(message));
+	}
+
+	/**
+	 * Send a message to every connection of every session
+	 *
+	 * @param message message to send
+	 * @return number of connections the message was queued for
+	 */
+	public static int broadcast(WebsocketMessage message)
+	{
+		int count = 0;
+		String json = WSService.toJson(message);
+		for (Set<WSService> services : sessions.values())
+		{
+			count += broadcast(services, json);
+		}
+		return count;
+	}
+
+	private static int broadcast(Collection<WSService> services, String json)
+	{
+		int count = 0;
+		for (WSService service : services)
+		{
+			service.sendText(json);
+			++count;
+		}
+		return count;
+	}
+
+	public static int getSessionCount()
+	{
+		return sessions.size();
+	}
+
+	public static int getConnectionCount()
+	{
+		int count = 0;
+		for (Set<WSService> services : sessions.values())
+		{
+			count += services.size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return total number of messages waiting in connection queues
+	 */
+	public static int getQueued()
+	{
+		int queued = 0;
+		for (Set<WSService> services : sessions.values())
+		{
+			for (WSService service : services)
+			{
+				queued += service.getQueued();
+			}
+		}
+		return queued;
+	}
+
+	public static WSStats getStats()
 	{
-		return sessions.get(uuid);
+		return stats;
 	}
 }
@@ -25,6 +25,8 @@
 package net.runelite.http.service.ws;
 
 import com.google.gson.Gson;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.UUID;
 import javax.websocket.CloseReason;
 import javax.websocket.EndpointConfig;
@@ -32,6 +34,7 @@ import javax.websocket.OnClose;
 import javax.websocket.OnError;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 import lombok.AccessLevel;
@@ -50,18 +53,122 @@ public class WSService
 
 	private static final Gson gson = WebsocketGsonFactory.build();
 
+	/**
+	 * Maximum number of messages queued behind the one in flight. Once
+	 * full the oldest queued message is dropped, so a slow client can
+	 * not hold more than this many messages in memory.
+	 */
+	static final int MAX_QUEUED = 64;
+
 	private Session session;
 	@Getter(AccessLevel.PACKAGE)
 	@Setter(AccessLevel.PACKAGE)
 	private UUID uuid;
 
+	// guarded by queue
+	private final Deque<String> queue = new ArrayDeque<>();
+	private boolean sending;
+
+	static String toJson(WebsocketMessage message)
+	{
+		return gson.toJson(message, WebsocketMessage.class);
+	}
+
 	public void send(WebsocketMessage message)
 	{
-		String json = gson.toJson(message, WebsocketMessage.class);
+		sendText(toJson(message));
+	}
 
+	/**
+	 * Send an already serialized message. At most one async send is in
+	 * flight per session, the rest wait in a bounded queue and are
+	 * written from the completion callback of the previous send.
+	 *
+	 * @param json serialized message
+	 */
+	void sendText(String json)
+	{
 		logger.debug("Sending {}", json);
 
-		session.getAsyncRemote().sendText(json);
+		synchronized (queue)
+		{
+			if (session == null || !session.isOpen())
+			{
+				return;
+			}
+
+			if (sending)
+			{
+				if (queue.size() >= MAX_QUEUED)
+				{
+					queue.pollFirst();
+					SessionManager.getStats().dropped();
+				}
+				queue.addLast(json);
+				return;
+			}
+
+			sending = true;
+		}
+
+		write(json);
+	}
+
+	int getQueued()
+	{
+		synchronized (queue)
+		{
+			return queue.size();
+		}
+	}
+
+	private void write(String json)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			session.getAsyncRemote().sendText(json, result -> sent(result, start));
+		}
+		catch (IllegalStateException ex)
+		{
+			// session closed underneath us
+			logger.debug("Unable to send to session {}", session, ex);
+			clear();
+		}
+	}
+
+	private void sent(SendResult result, long start)
+	{
+		SessionManager.getStats().sent(System.nanoTime() - start);
+
+		if (!result.isOK())
+		{
+			logger.debug("Error sending to session {}", session, result.getException());
+			clear();
+			return;
+		}
+
+		String next;
+		synchronized (queue)
+		{
+			next = queue.pollFirst();
+			if (next == null)
+			{
+				sending = false;
+				return;
+			}
+		}
+
+		write(next);
+	}
+
+	private void clear()
+	{
+		synchronized (queue)
+		{
+			queue.clear();
+			sending = false;
+		}
 	}
 
 	@OnOpen
@@ -75,6 +182,7 @@ public class WSService
 	public void onClose(Session session, CloseReason resaon)
 	{
 		SessionManager.remove(this);
+		clear();
 		logger.debug("Close session {}", session);
 	}
 
@@ -82,6 +190,7 @@ public class WSService
 	public void onError(Session session, Throwable ex)
 	{
 		SessionManager.remove(this);
+		clear();
 		logger.debug("Error in session {}", session, ex);
 	}
 
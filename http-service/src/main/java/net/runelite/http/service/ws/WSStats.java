@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.ws;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for outbound websocket messages
+ */
+public class WSStats
+{
+	private final AtomicLong sent = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong sendNanos = new AtomicLong();
+	private final AtomicLong maxSendNanos = new AtomicLong();
+
+	void sent(long nanos)
+	{
+		sent.incrementAndGet();
+		sendNanos.addAndGet(nanos);
+		maxSendNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	void dropped()
+	{
+		dropped.incrementAndGet();
+	}
+
+	public long getSent()
+	{
+		return sent.get();
+	}
+
+	public long getDropped()
+	{
+		return dropped.get();
+	}
+
+	/**
+	 * @return total time from handing messages to the container until
+	 * their sends completed, in nanoseconds
+	 */
+	public long getSendNanos()
+	{
+		return sendNanos.get();
+	}
+
+	/**
+	 * Get the longest send since the last call
+	 *
+	 * @return send time in nanoseconds
+	 */
+	public long resetMaxSendNanos()
+	{
+		return maxSendNanos.getAndSet(0L);
+	}
+}
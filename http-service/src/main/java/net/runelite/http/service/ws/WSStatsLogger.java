@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.ws;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodically logs websocket queue depth and send metrics
+ */
+@Service
+@Slf4j
+public class WSStatsLogger
+{
+	private long lastSent;
+	private long lastDropped;
+	private long lastSendNanos;
+
+	@Scheduled(fixedDelay = 60_000)
+	public void logStats()
+	{
+		WSStats stats = SessionManager.getStats();
+		long sent = stats.getSent() - lastSent;
+		long dropped = stats.getDropped() - lastDropped;
+		long sendNanos = stats.getSendNanos() - lastSendNanos;
+		long maxSendNanos = stats.resetMaxSendNanos();
+
+		lastSent += sent;
+		lastDropped += dropped;
+		lastSendNanos += sendNanos;
+
+		int connections = SessionManager.getConnectionCount();
+		if (connections == 0 && sent == 0 && dropped == 0)
+		{
+			return;
+		}
+
+		log.info("Websocket: {} sessions, {} connections, {} queued; last minute {} sent, {} dropped, send time {} us avg {} us max",
+			SessionManager.getSessionCount(), connections, SessionManager.getQueued(),
+			sent, dropped,
+			sent > 0 ? sendNanos / sent / 1000 : 0, maxSendNanos / 1000);
+	}
+}
@@ -24,20 +24,36 @@
  */
 package net.runelite.http.service.xp;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
 import net.runelite.http.api.hiscore.HiscoreResult;
 import net.runelite.http.api.xp.XpData;
 import net.runelite.http.service.hiscore.HiscoreResultBuilder;
 import net.runelite.http.service.hiscore.HiscoreService;
+import net.runelite.http.service.util.PendingWrites;
 import net.runelite.http.service.xp.beans.PlayerEntity;
 import net.runelite.http.service.xp.beans.XpEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sql2o.Connection;
+import org.sql2o.Query;
 import org.sql2o.Sql2o;
 
 @Service
@@ -48,9 +64,34 @@ public class XpTrackerService
 	@Qualifier("Runelite XP Tracker SQL2O")
 	private Sql2o sql2o;
 
+	private static final int BATCH_SIZE = 500;
+
 	@Autowired
 	private HiscoreService hiscoreService;
 
+	/**
+	 * Xp of a player waiting to be written
+	 */
+	@Value
+	static class PendingXp
+	{
+		String username;
+		// time is when the xp was queued
+		XpData xpData;
+	}
+
+	// latest xp of each player waiting to be written, by lower case name
+	private final PendingWrites<String, PendingXp> pending = new PendingWrites<>();
+
+	private final Cache<String, Integer> playerIds = CacheBuilder.newBuilder()
+		.maximumSize(65536)
+		.build();
+
+	// most recently written xp of each player, by player id
+	private final Cache<Integer, XpData> latestXp = CacheBuilder.newBuilder()
+		.maximumSize(65536)
+		.build();
+
 	public void update(String username) throws ExecutionException
 	{
 		HiscoreResultBuilder hiscoreResultBuilder = hiscoreService.lookupUsername(username, HiscoreEndpoint.NORMAL);
@@ -58,26 +99,40 @@ public class XpTrackerService
 		update(username, hiscoreResult);
 	}
 
+	/**
+	 * Queue a hiscore result to be recorded. Results are written in
+	 * batches, and only the most recent queued result of a player is
+	 * written.
+	 */
 	public void update(String username, HiscoreResult hiscoreResult)
 	{
-		try (Connection con = sql2o.open())
-		{
-			PlayerEntity playerEntity = findOrCreatePlayer(con, username);
+		XpData xpData = XpMapper.INSTANCE.hiscoreResultToXpData(hiscoreResult);
+		xpData.setTime(Instant.now());
 
-			XpEntity currentXp = findXpAtTime(con, username, Instant.now());
-			if (currentXp != null)
-			{
-				XpData hiscoreData = XpMapper.INSTANCE.hiscoreResultToXpData(hiscoreResult);
-				XpData existingData = XpMapper.INSTANCE.xpEntityToXpData(currentXp);
+		// player names are case insensitive, so differently cased names replace each other
+		pending.put(username.toLowerCase(), new PendingXp(username, xpData));
+	}
 
-				if (hiscoreData.equals(existingData))
-				{
-					log.debug("Hiscore for {} already up to date", username);
-					return;
-				}
-			}
+	@Scheduled(fixedDelay = 5_000)
+	@PreDestroy
+	public void flush()
+	{
+		pending.flush(this::write);
+	}
+
+	private void write(Map<String, PendingXp> updates)
+	{
+		List<String> usernames = updates.values().stream()
+			.map(PendingXp::getUsername)
+			.collect(Collectors.toList());
 
-			con.createQuery("insert into xp (player,attack_xp,defence_xp,strength_xp,hitpoints_xp,ranged_xp,prayer_xp,magic_xp,cooking_xp,woodcutting_xp,"
+		try (Connection con = sql2o.beginTransaction())
+		{
+			Map<String, Integer> players = findOrCreatePlayers(con, usernames);
+			Map<Integer, XpData> current = findLatestXp(con, players.values());
+			Map<Integer, XpData> changed = findChanged(updates.values(), players, current);
+
+			Query query = con.createQuery("insert into xp (player,attack_xp,defence_xp,strength_xp,hitpoints_xp,ranged_xp,prayer_xp,magic_xp,cooking_xp,woodcutting_xp,"
 				+ "fletching_xp,fishing_xp,firemaking_xp,crafting_xp,smithing_xp,mining_xp,herblore_xp,agility_xp,thieving_xp,slayer_xp,farming_xp,"
 				+ "runecraft_xp,hunter_xp,construction_xp,attack_rank,defence_rank,strength_rank,hitpoints_rank,ranged_rank,prayer_rank,magic_rank,"
 				+ "cooking_rank,woodcutting_rank,fletching_rank,fishing_rank,firemaking_rank,crafting_rank,smithing_rank,mining_rank,herblore_rank,"
@@ -86,82 +141,245 @@ public class XpTrackerService
 				+ ":crafting_xp,:smithing_xp,:mining_xp,:herblore_xp,:agility_xp,:thieving_xp,:slayer_xp,:farming_xp,:runecraft_xp,:hunter_xp,"
 				+ ":construction_xp,:attack_rank,:defence_rank,:strength_rank,:hitpoints_rank,:ranged_rank,:prayer_rank,:magic_rank,:cooking_rank,"
 				+ ":woodcutting_rank,:fletching_rank,:fishing_rank,:firemaking_rank,:crafting_rank,:smithing_rank,:mining_rank,:herblore_rank,"
-				+ ":agility_rank,:thieving_rank,:slayer_rank,:farming_rank,:runecraft_rank,:hunter_rank,:construction_rank,:overall_rank)")
-				.addParameter("player", playerEntity.getId())
-				.addParameter("attack_xp", hiscoreResult.getAttack().getExperience())
-				.addParameter("defence_xp", hiscoreResult.getDefence().getExperience())
-				.addParameter("strength_xp", hiscoreResult.getStrength().getExperience())
-				.addParameter("hitpoints_xp", hiscoreResult.getHitpoints().getExperience())
-				.addParameter("ranged_xp", hiscoreResult.getRanged().getExperience())
-				.addParameter("prayer_xp", hiscoreResult.getPrayer().getExperience())
-				.addParameter("magic_xp", hiscoreResult.getMagic().getExperience())
-				.addParameter("cooking_xp", hiscoreResult.getCooking().getExperience())
-				.addParameter("woodcutting_xp", hiscoreResult.getWoodcutting().getExperience())
-				.addParameter("fletching_xp", hiscoreResult.getFletching().getExperience())
-				.addParameter("fishing_xp", hiscoreResult.getFishing().getExperience())
-				.addParameter("firemaking_xp", hiscoreResult.getFiremaking().getExperience())
-				.addParameter("crafting_xp", hiscoreResult.getCrafting().getExperience())
-				.addParameter("smithing_xp", hiscoreResult.getSmithing().getExperience())
-				.addParameter("mining_xp", hiscoreResult.getMining().getExperience())
-				.addParameter("herblore_xp", hiscoreResult.getHerblore().getExperience())
-				.addParameter("agility_xp", hiscoreResult.getAgility().getExperience())
-				.addParameter("thieving_xp", hiscoreResult.getThieving().getExperience())
-				.addParameter("slayer_xp", hiscoreResult.getSlayer().getExperience())
-				.addParameter("farming_xp", hiscoreResult.getFarming().getExperience())
-				.addParameter("runecraft_xp", hiscoreResult.getRunecraft().getExperience())
-				.addParameter("hunter_xp", hiscoreResult.getHunter().getExperience())
-				.addParameter("construction_xp", hiscoreResult.getConstruction().getExperience())
-				.addParameter("attack_rank", hiscoreResult.getAttack().getRank())
-				.addParameter("defence_rank", hiscoreResult.getDefence().getRank())
-				.addParameter("strength_rank", hiscoreResult.getStrength().getRank())
-				.addParameter("hitpoints_rank", hiscoreResult.getHitpoints().getRank())
-				.addParameter("ranged_rank", hiscoreResult.getRanged().getRank())
-				.addParameter("prayer_rank", hiscoreResult.getPrayer().getRank())
-				.addParameter("magic_rank", hiscoreResult.getMagic().getRank())
-				.addParameter("cooking_rank", hiscoreResult.getCooking().getRank())
-				.addParameter("woodcutting_rank", hiscoreResult.getWoodcutting().getRank())
-				.addParameter("fletching_rank", hiscoreResult.getFletching().getRank())
-				.addParameter("fishing_rank", hiscoreResult.getFishing().getRank())
-				.addParameter("firemaking_rank", hiscoreResult.getFiremaking().getRank())
-				.addParameter("crafting_rank", hiscoreResult.getCrafting().getRank())
-				.addParameter("smithing_rank", hiscoreResult.getSmithing().getRank())
-				.addParameter("mining_rank", hiscoreResult.getMining().getRank())
-				.addParameter("herblore_rank", hiscoreResult.getHerblore().getRank())
-				.addParameter("agility_rank", hiscoreResult.getAgility().getRank())
-				.addParameter("thieving_rank", hiscoreResult.getThieving().getRank())
-				.addParameter("slayer_rank", hiscoreResult.getSlayer().getRank())
-				.addParameter("farming_rank", hiscoreResult.getFarming().getRank())
-				.addParameter("runecraft_rank", hiscoreResult.getRunecraft().getRank())
-				.addParameter("hunter_rank", hiscoreResult.getHunter().getRank())
-				.addParameter("construction_rank", hiscoreResult.getConstruction().getRank())
-				.addParameter("overall_rank", hiscoreResult.getOverall().getRank())
-				.executeUpdate();
+				+ ":agility_rank,:thieving_rank,:slayer_rank,:farming_rank,:runecraft_rank,:hunter_rank,:construction_rank,:overall_rank)");
+
+			int count = 0;
+			for (Map.Entry<Integer, XpData> entry : changed.entrySet())
+			{
+				addXpParameters(query, entry.getKey(), entry.getValue())
+					.addToBatch();
+
+				if (++count % BATCH_SIZE == 0)
+				{
+					query.executeBatch();
+				}
+			}
+
+			if (count % BATCH_SIZE != 0)
+			{
+				query.executeBatch();
+			}
+
+			con.commit();
+
+			// only cache ids once the players they refer to are committed
+			for (String username : usernames)
+			{
+				Integer player = players.get(username);
+				if (player != null)
+				{
+					playerIds.put(username, player);
+				}
+			}
+			latestXp.putAll(changed);
+
+			log.debug("Recorded xp of {} players, {} unchanged", changed.size(), updates.size() - changed.size());
 		}
 	}
 
-	private synchronized PlayerEntity findOrCreatePlayer(Connection con, String username)
+	/**
+	 * Pick the xp to record for each player. Names which could not be
+	 * resolved to a player are skipped, as are players whose xp is
+	 * unchanged. If a player was queued under more than one name, the
+	 * most recently queued xp is used.
+	 *
+	 * @param updates queued xp
+	 * @param players player ids by name
+	 * @param current most recently recorded xp by player id
+	 * @return xp to record by player id
+	 */
+	static Map<Integer, XpData> findChanged(Collection<PendingXp> updates, Map<String, Integer> players, Map<Integer, XpData> current)
 	{
-		PlayerEntity playerEntity = con.createQuery("select * from player where name = :name")
-			.addParameter("name", username)
-			.executeAndFetchFirst(PlayerEntity.class);
-		if (playerEntity != null)
+		Map<Integer, XpData> latest = new LinkedHashMap<>();
+		for (PendingXp update : updates)
 		{
-			return playerEntity;
+			Integer player = players.get(update.getUsername());
+			if (player == null)
+			{
+				log.warn("Unable to find player {}", update.getUsername());
+				continue;
+			}
+
+			latest.merge(player, update.getXpData(), (a, b) -> b.getTime().isAfter(a.getTime()) ? b : a);
 		}
 
-		Instant now = Instant.now();
+		latest.entrySet().removeIf(entry -> entry.getValue().equals(current.get(entry.getKey())));
+		return latest;
+	}
+
+	private static Query addXpParameters(Query query, int player, XpData xpData)
+	{
+		return query
+			.addParameter("player", player)
+			.addParameter("attack_xp", xpData.getAttack_xp())
+			.addParameter("defence_xp", xpData.getDefence_xp())
+			.addParameter("strength_xp", xpData.getStrength_xp())
+			.addParameter("hitpoints_xp", xpData.getHitpoints_xp())
+			.addParameter("ranged_xp", xpData.getRanged_xp())
+			.addParameter("prayer_xp", xpData.getPrayer_xp())
+			.addParameter("magic_xp", xpData.getMagic_xp())
+			.addParameter("cooking_xp", xpData.getCooking_xp())
+			.addParameter("woodcutting_xp", xpData.getWoodcutting_xp())
+			.addParameter("fletching_xp", xpData.getFletching_xp())
+			.addParameter("fishing_xp", xpData.getFishing_xp())
+			.addParameter("firemaking_xp", xpData.getFiremaking_xp())
+			.addParameter("crafting_xp", xpData.getCrafting_xp())
+			.addParameter("smithing_xp", xpData.getSmithing_xp())
+			.addParameter("mining_xp", xpData.getMining_xp())
+			.addParameter("herblore_xp", xpData.getHerblore_xp())
+			.addParameter("agility_xp", xpData.getAgility_xp())
+			.addParameter("thieving_xp", xpData.getThieving_xp())
+			.addParameter("slayer_xp", xpData.getSlayer_xp())
+			.addParameter("farming_xp", xpData.getFarming_xp())
+			.addParameter("runecraft_xp", xpData.getRunecraft_xp())
+			.addParameter("hunter_xp", xpData.getHunter_xp())
+			.addParameter("construction_xp", xpData.getConstruction_xp())
+			.addParameter("attack_rank", xpData.getAttack_rank())
+			.addParameter("defence_rank", xpData.getDefence_rank())
+			.addParameter("strength_rank", xpData.getStrength_rank())
+			.addParameter("hitpoints_rank", xpData.getHitpoints_rank())
+			.addParameter("ranged_rank", xpData.getRanged_rank())
+			.addParameter("prayer_rank", xpData.getPrayer_rank())
+			.addParameter("magic_rank", xpData.getMagic_rank())
+			.addParameter("cooking_rank", xpData.getCooking_rank())
+			.addParameter("woodcutting_rank", xpData.getWoodcutting_rank())
+			.addParameter("fletching_rank", xpData.getFletching_rank())
+			.addParameter("fishing_rank", xpData.getFishing_rank())
+			.addParameter("firemaking_rank", xpData.getFiremaking_rank())
+			.addParameter("crafting_rank", xpData.getCrafting_rank())
+			.addParameter("smithing_rank", xpData.getSmithing_rank())
+			.addParameter("mining_rank", xpData.getMining_rank())
+			.addParameter("herblore_rank", xpData.getHerblore_rank())
+			.addParameter("agility_rank", xpData.getAgility_rank())
+			.addParameter("thieving_rank", xpData.getThieving_rank())
+			.addParameter("slayer_rank", xpData.getSlayer_rank())
+			.addParameter("farming_rank", xpData.getFarming_rank())
+			.addParameter("runecraft_rank", xpData.getRunecraft_rank())
+			.addParameter("hunter_rank", xpData.getHunter_rank())
+			.addParameter("construction_rank", xpData.getConstruction_rank())
+			.addParameter("overall_rank", xpData.getOverall_rank());
+	}
 
-		int id = con.createQuery("insert into player (name, tracked_since) values (:name, :tracked_since)")
-			.addParameter("name", username)
-			.addParameter("tracked_since", now)
-			.executeUpdate()
-			.getKey(int.class);
+	/**
+	 * Resolve player ids by name, creating players which are not yet
+	 * tracked.
+	 */
+	private Map<String, Integer> findOrCreatePlayers(Connection con, Iterable<String> usernames)
+	{
+		// player names are case insensitive
+		Map<String, Integer> players = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		List<String> missing = new ArrayList<>();
+		for (String username : usernames)
+		{
+			Integer id = playerIds.getIfPresent(username);
+			if (id != null)
+			{
+				players.put(username, id);
+			}
+			else
+			{
+				missing.add(username);
+			}
+		}
+
+		if (missing.isEmpty())
+		{
+			return players;
+		}
+
+		findPlayers(con, missing, players);
+
+		List<String> created = missing.stream()
+			.filter(username -> !players.containsKey(username))
+			.collect(Collectors.toList());
+		if (!created.isEmpty())
+		{
+			Instant now = Instant.now();
+			Query query = con.createQuery("insert ignore into player (name, tracked_since) values (:name, :tracked_since)");
+			for (String username : created)
+			{
+				query.addParameter("name", username)
+					.addParameter("tracked_since", now)
+					.addToBatch();
+			}
+			query.executeBatch();
+
+			findPlayers(con, created, players);
+		}
+
+		return players;
+	}
+
+	private static void findPlayers(Connection con, List<String> usernames, Map<String, Integer> players)
+	{
+		for (List<String> batch : Lists.partition(usernames, BATCH_SIZE))
+		{
+			StringBuilder names = new StringBuilder();
+			for (int i = 0; i < batch.size(); ++i)
+			{
+				names.append(i > 0 ? ",:name" : ":name").append(i);
+			}
+
+			Query query = con.createQuery("select * from player where name in (" + names + ")");
+			for (int i = 0; i < batch.size(); ++i)
+			{
+				query.addParameter("name" + i, batch.get(i));
+			}
+
+			for (PlayerEntity playerEntity : query.executeAndFetch(PlayerEntity.class))
+			{
+				players.put(playerEntity.getName(), playerEntity.getId());
+			}
+		}
+	}
+
+	/**
+	 * Find the most recent xp of each player, for detecting unchanged
+	 * hiscore results.
+	 */
+	private Map<Integer, XpData> findLatestXp(Connection con, Iterable<Integer> players)
+	{
+		Map<Integer, XpData> latest = new HashMap<>();
+		List<Integer> missing = new ArrayList<>();
+		for (int player : players)
+		{
+			XpData xpData = latestXp.getIfPresent(player);
+			if (xpData != null)
+			{
+				latest.put(player, xpData);
+			}
+			else
+			{
+				missing.add(player);
+			}
+		}
+
+		for (List<Integer> batch : Lists.partition(missing, BATCH_SIZE))
+		{
+			StringBuilder ids = new StringBuilder();
+			for (int i = 0; i < batch.size(); ++i)
+			{
+				ids.append(i > 0 ? ",:player" : ":player").append(i);
+			}
+
+			Query query = con.createQuery("select xp.* from xp join "
+				+ "(select player, max(time) as time from xp where player in (" + ids + ") group by player) t "
+				+ "on xp.player = t.player and xp.time = t.time")
+				.throwOnMappingFailure(false);
+			for (int i = 0; i < batch.size(); ++i)
+			{
+				query.addParameter("player" + i, batch.get(i));
+			}
+
+			List<XpEntity> entities = query.executeAndFetch(XpEntity.class);
+
+			for (XpEntity xpEntity : entities)
+			{
+				latest.put(xpEntity.getPlayer(), XpMapper.INSTANCE.xpEntityToXpData(xpEntity));
+			}
+		}
 
-		playerEntity = new PlayerEntity();
-		playerEntity.setId(id);
-		playerEntity.setName(username);
-		playerEntity.setTracked_since(now);
-		return playerEntity;
+		return latest;
 	}
 
 	private XpEntity findXpAtTime(Connection con, String username, Instant time)
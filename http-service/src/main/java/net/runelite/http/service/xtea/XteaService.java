@@ -24,8 +24,18 @@
  */
 package net.runelite.http.service.xtea;
 
-import java.io.IOException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.fs.Container;
@@ -41,8 +51,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
 import org.springframework.web.bind.annotation.RestController;
@@ -69,9 +83,30 @@ public class XteaService
 		+ "  KEY `region` (`region`,`time`)\n"
 		+ ") ENGINE=InnoDB";
 
+	/**
+	 * How far back each reload looks before the newest key already seen,
+	 * to pick up submissions whose transaction committed late
+	 */
+	private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(1);
+
 	private final Sql2o sql2o;
 	private final CacheService cacheService;
 
+	// map archives keyed by cache id and archive name hash. The archive
+	// data itself is cached by CacheService
+	private final Cache<Long, ArchiveEntry> archiveEntries = CacheBuilder.newBuilder()
+		.maximumSize(8192)
+		.build();
+
+	// latest keys for each region, updated as submissions are accepted
+	// here and periodically reloaded to pick up keys from other instances
+	private final Map<Integer, XteaKey> latestKeys = new HashMap<>();
+	private List<XteaKey> snapshot = Collections.emptyList();
+	// seeded with the start time so etags from before a restart don't match
+	private long snapshotVersion = System.currentTimeMillis();
+	// time of the newest key loaded from the database, only used by reload
+	private Instant lastSeen;
+
 	@Autowired
 	public XteaService(
 		@Qualifier("Runelite SQL2O") Sql2o sql2o,
@@ -86,16 +121,112 @@ public class XteaService
 			con.createQuery(CREATE_SQL)
 				.executeUpdate();
 		}
+
+		try (Connection con = sql2o.open())
+		{
+			List<XteaEntry> entries = con.createQuery(
+				"select t1.region, t1.time, t2.rev, t2.key1, t2.key2, t2.key3, t2.key4 from " +
+					"(select region,max(time) as time from xtea group by region) t1 " +
+					"join xtea t2 on t1.region = t2.region and t1.time = t2.time")
+				.executeAndFetch(XteaEntry.class);
+
+			loaded(entries);
+		}
 	}
 
-	private XteaEntry findLatestXtea(Connection con, int region)
+	/**
+	 * Reload keys added since the last load, including those accepted by
+	 * other instances or inserted directly, so the snapshot is at most
+	 * one reload interval behind the database.
+	 */
+	@Scheduled(fixedDelay = 60_000)
+	public void reload()
 	{
-		return con.createQuery("select region, time, key1, key2, key3, key4 from xtea "
-			+ "where region = :region "
-			+ "order by time desc "
-			+ "limit 1")
-			.addParameter("region", region)
-			.executeAndFetchFirst(XteaEntry.class);
+		Instant since = lastSeen == null ? Instant.EPOCH : lastSeen.minus(RELOAD_OVERLAP);
+
+		try (Connection con = sql2o.open())
+		{
+			// rows are applied in order, so the last one for each region wins
+			List<XteaEntry> entries = con.createQuery(
+				"select region, time, rev, key1, key2, key3, key4 from xtea " +
+					"where time >= :since order by time, id")
+				.addParameter("since", Timestamp.from(since))
+				.executeAndFetch(XteaEntry.class);
+
+			loaded(entries);
+		}
+	}
+
+	private void loaded(List<XteaEntry> entries)
+	{
+		for (XteaEntry entry : entries)
+		{
+			if (lastSeen == null || entry.getTime().isAfter(lastSeen))
+			{
+				lastSeen = entry.getTime();
+			}
+		}
+
+		updateSnapshot(entries.stream()
+			.map(XteaService::entryToKey)
+			.collect(Collectors.toList()));
+	}
+
+	private synchronized void updateSnapshot(List<XteaKey> keys)
+	{
+		boolean changed = false;
+		for (XteaKey key : keys)
+		{
+			XteaKey previous = latestKeys.put(key.getRegion(), key);
+			changed |= previous == null || !Arrays.equals(previous.getKeys(), key.getKeys());
+		}
+
+		if (!changed)
+		{
+			return;
+		}
+
+		List<XteaKey> list = new ArrayList<>(latestKeys.values());
+		list.sort(Comparator.comparingInt(XteaKey::getRegion));
+		snapshot = Collections.unmodifiableList(list);
+		++snapshotVersion;
+	}
+
+	private Map<Integer, XteaEntry> findLatestXteas(Connection con, List<XteaKey> keys)
+	{
+		Map<Integer, XteaEntry> latest = new HashMap<>();
+		if (keys.isEmpty())
+		{
+			return latest;
+		}
+
+		List<Integer> regions = keys.stream()
+			.map(XteaKey::getRegion)
+			.distinct()
+			.collect(Collectors.toList());
+
+		StringBuilder params = new StringBuilder();
+		for (int i = 0; i < regions.size(); ++i)
+		{
+			params.append(i > 0 ? ",:region" : ":region").append(i);
+		}
+
+		Query query = con.createQuery(
+			"select t1.region, t1.time, t2.rev, t2.key1, t2.key2, t2.key3, t2.key4 from " +
+				"(select region,max(time) as time from xtea where region in (" + params + ") group by region) t1 " +
+				"join xtea t2 on t1.region = t2.region and t1.time = t2.time");
+		for (int i = 0; i < regions.size(); ++i)
+		{
+			query.addParameter("region" + i, regions.get(i));
+		}
+
+		List<XteaEntry> entries = query.executeAndFetch(XteaEntry.class);
+
+		for (XteaEntry entry : entries)
+		{
+			latest.put(entry.getRegion(), entry);
+		}
+		return latest;
 	}
 
 	@RequestMapping(method = POST)
@@ -115,15 +246,21 @@ public class XteaService
 
 			for (XteaKey key : xteaRequest.getKeys())
 			{
-				int region = key.getRegion();
-				int[] keys = key.getKeys();
-
-				XteaEntry xteaEntry = findLatestXtea(con, region);
-
-				if (keys.length != 4)
+				if (key.getKeys().length != 4)
 				{
 					throw new IllegalArgumentException("Key length must be 4");
 				}
+			}
+
+			Map<Integer, XteaEntry> latest = findLatestXteas(con, xteaRequest.getKeys());
+			List<XteaKey> accepted = new ArrayList<>();
+
+			for (XteaKey key : xteaRequest.getKeys())
+			{
+				int region = key.getRegion();
+				int[] keys = key.getKeys();
+
+				XteaEntry xteaEntry = latest.get(region);
 
 				// already have these?
 				if (xteaEntry != null
@@ -147,49 +284,51 @@ public class XteaService
 					.addParameter("key3", keys[2])
 					.addParameter("key4", keys[3])
 					.addToBatch();
+				accepted.add(key);
 			}
 
 			query.executeBatch();
 			con.commit(false);
+
+			updateSnapshot(accepted);
 		}
 	}
 
 	@RequestMapping
-	public List<XteaKey> get()
+	public ResponseEntity<List<XteaKey>> get(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch)
 	{
-		try (Connection con = sql2o.open())
+		List<XteaKey> keys;
+		long version;
+
+		synchronized (this)
 		{
-			List<XteaEntry> entries = con.createQuery(
-				"select t1.region, t1.time, t2.rev, t2.key1, t2.key2, t2.key3, t2.key4 from " +
-					"(select region,max(time) as time from xtea group by region) t1 " +
-					"join xtea t2 on t1.region = t2.region and t1.time = t2.time")
-				.executeAndFetch(XteaEntry.class);
+			keys = snapshot;
+			version = snapshotVersion;
+		}
 
-			return entries.stream()
-				.map(XteaService::entryToKey)
-				.collect(Collectors.toList());
+		String etag = "\"" + version + "\"";
+		if (etag.equals(ifNoneMatch))
+		{
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+				.eTag(etag)
+				.build();
 		}
+
+		return ResponseEntity.ok()
+			.eTag(etag)
+			.body(keys);
 	}
 
 	@RequestMapping("/{region}")
-	public XteaKey getRegion(@PathVariable int region)
+	public synchronized XteaKey getRegion(@PathVariable int region)
 	{
-		XteaEntry entry;
-
-		try (Connection con = sql2o.open())
-		{
-			entry = con.createQuery("select region, time, rev, key1, key2, key3, key4 from xtea "
-				+ "where region = :region order by time desc limit 1")
-				.addParameter("region", region)
-				.executeAndFetchFirst(XteaEntry.class);
-		}
-
-		if (entry == null)
+		XteaKey key = latestKeys.get(region);
+		if (key == null)
 		{
 			throw new NotFoundException();
 		}
 
-		return entryToKey(entry);
+		return key;
 	}
 
 	private boolean checkKeys(CacheEntry cache, int regionId, int[] keys)
@@ -205,10 +344,18 @@ public class XteaService
 			.toString();
 		int archiveNameHash = Djb2.hash(archiveName);
 
-		ArchiveEntry archiveEntry = cacheService.findArchiveForTypeAndName(cache, IndexType.MAPS, archiveNameHash);
+		long archiveKey = (long) cache.getId() << 32 | (archiveNameHash & 0xFFFFFFFFL);
+
+		ArchiveEntry archiveEntry = archiveEntries.getIfPresent(archiveKey);
 		if (archiveEntry == null)
 		{
-			throw new InternalServerErrorException("Unable to find archive for region");
+			archiveEntry = cacheService.findArchiveForTypeAndName(cache, IndexType.MAPS, archiveNameHash);
+			if (archiveEntry == null)
+			{
+				throw new InternalServerErrorException("Unable to find archive for region");
+			}
+
+			archiveEntries.put(archiveKey, archiveEntry);
 		}
 
 		byte[] data = cacheService.getArchive(archiveEntry);
@@ -217,15 +364,7 @@ public class XteaService
 			throw new InternalServerErrorException("Unable to get archive data");
 		}
 
-		try
-		{
-			Container.decompress(data, keys);
-			return true;
-		}
-		catch (IOException ex)
-		{
-			return false;
-		}
+		return Container.checkKeys(data, keys);
 	}
 
 	private static XteaKey entryToKey(XteaEntry xe)
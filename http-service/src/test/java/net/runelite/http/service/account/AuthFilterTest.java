@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.account;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.runelite.http.api.RuneLiteAPI;
+import net.runelite.http.service.account.beans.SessionEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AuthFilterTest
+{
+	private static final UUID SESSION = UUID.randomUUID();
+
+	/**
+	 * Serves a single session from memory instead of the database
+	 */
+	private static class TestAuthFilter extends AuthFilter
+	{
+		private boolean deleted;
+		private boolean logoutDuringRead;
+		private int reads;
+
+		TestAuthFilter()
+		{
+			super(null);
+		}
+
+		@Override
+		SessionEntry findSession(UUID uuid)
+		{
+			++reads;
+
+			if (deleted)
+			{
+				return null;
+			}
+
+			SessionEntry sessionEntry = new SessionEntry();
+			sessionEntry.setUser(1);
+			sessionEntry.setUuid(uuid);
+			sessionEntry.setCreated(Instant.EPOCH);
+
+			if (logoutDuringRead)
+			{
+				// the session is deleted after it was read, but before it is cached
+				logout();
+			}
+
+			return sessionEntry;
+		}
+
+		void logout()
+		{
+			deleted = true;
+			invalidate(SESSION);
+		}
+	}
+
+	private static HttpServletRequest request()
+	{
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getHeader(RuneLiteAPI.RUNELITE_AUTH)).thenReturn(SESSION.toString());
+		return request;
+	}
+
+	@Test
+	public void testCachesSession() throws IOException
+	{
+		TestAuthFilter auth = new TestAuthFilter();
+
+		assertNotNull(auth.handle(request(), mock(HttpServletResponse.class)));
+		assertNotNull(auth.handle(request(), mock(HttpServletResponse.class)));
+		assertEquals(1, auth.reads);
+	}
+
+	@Test
+	public void testLogout() throws IOException
+	{
+		TestAuthFilter auth = new TestAuthFilter();
+		assertNotNull(auth.handle(request(), mock(HttpServletResponse.class)));
+
+		auth.logout();
+
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		assertNull(auth.handle(request(), response));
+		verify(response).sendError(401, "Access denied");
+	}
+
+	@Test
+	public void testLogoutDuringRead() throws IOException
+	{
+		TestAuthFilter auth = new TestAuthFilter();
+		auth.logoutDuringRead = true;
+
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		assertNull(auth.handle(request(), response));
+		verify(response).sendError(401, "Access denied");
+
+		// the deleted session must not have been left in the cache
+		response = mock(HttpServletResponse.class);
+		assertNull(auth.handle(request(), response));
+		verify(response).sendError(401, "Access denied");
+		assertEquals(2, auth.reads);
+	}
+}
@@ -24,11 +24,24 @@
  */
 package net.runelite.http.service.hiscore;
 
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
 import net.runelite.http.api.hiscore.HiscoreResult;
+import net.runelite.http.service.util.exception.InternalServerErrorException;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -70,6 +83,51 @@ public class HiscoreServiceTest
 			+ "-1,-1\n"
 			+ "254,92";
 
+	// the same player after gaining an attack level
+	private static final String UPDATED_RESPONSE = RESPONSE.replace("679419,50,107181", "679419,51,123660");
+
+	/**
+	 * Serves a response once released, so a lookup can be held mid request
+	 */
+	private static class BlockingDispatcher extends Dispatcher
+	{
+		private volatile CountDownLatch latch = new CountDownLatch(0);
+		private volatile String body = RESPONSE;
+
+		void block()
+		{
+			latch = new CountDownLatch(1);
+		}
+
+		void release()
+		{
+			latch.countDown();
+		}
+
+		@Override
+		public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+		{
+			latch.await();
+			return new MockResponse().setBody(body);
+		}
+	}
+
+	private static class FakeTicker extends Ticker
+	{
+		private final AtomicLong nanos = new AtomicLong();
+
+		@Override
+		public long read()
+		{
+			return nanos.get();
+		}
+
+		void advance(long time, TimeUnit unit)
+		{
+			nanos.addAndGet(unit.toNanos(time));
+		}
+	}
+
 	private final MockWebServer server = new MockWebServer();
 
 	@Before
@@ -100,4 +158,124 @@ public class HiscoreServiceTest
 		Assert.assertEquals(254, result.getClueScrollMaster().getRank());
 	}
 
+	@Test
+	public void testConcurrentLookupsShareRequest() throws Exception
+	{
+		BlockingDispatcher dispatcher = new BlockingDispatcher();
+		dispatcher.block();
+		server.setDispatcher(dispatcher);
+
+		HiscoreTestService hiscores = new HiscoreTestService(server.url("/"));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<Future<HiscoreResultBuilder>> lookups = new ArrayList<>();
+			for (int i = 0; i < 4; ++i)
+			{
+				lookups.add(executor.submit(() -> hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL)));
+			}
+
+			// hold the first lookup at the server while the others join it
+			server.takeRequest();
+			Thread.sleep(100);
+			dispatcher.release();
+
+			HiscoreResultBuilder result = lookups.get(0).get();
+			for (Future<HiscoreResultBuilder> lookup : lookups)
+			{
+				Assert.assertSame(result, lookup.get());
+			}
+			Assert.assertEquals(1, server.getRequestCount());
+		}
+		finally
+		{
+			dispatcher.release();
+			executor.shutdownNow();
+			hiscores.shutdown();
+		}
+	}
+
+	@Test
+	public void testStaleServedWhileRefreshing() throws Exception
+	{
+		BlockingDispatcher dispatcher = new BlockingDispatcher();
+		server.setDispatcher(dispatcher);
+
+		FakeTicker ticker = new FakeTicker();
+		HiscoreTestService hiscores = new HiscoreTestService(server.url("/"), 1, 10_000, ticker);
+		try
+		{
+			HiscoreResultBuilder first = hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL);
+			server.takeRequest();
+
+			ticker.advance(61, TimeUnit.SECONDS);
+			dispatcher.block();
+			dispatcher.body = UPDATED_RESPONSE;
+
+			// the stale result is served straight away, and refreshed in the background
+			Assert.assertSame(first, hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL));
+			server.takeRequest();
+			Assert.assertSame(first, hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL));
+			Assert.assertEquals(2, server.getRequestCount());
+
+			dispatcher.release();
+
+			HiscoreResultBuilder refreshed;
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			do
+			{
+				Thread.sleep(10);
+				refreshed = hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL);
+			}
+			while (refreshed == first && System.nanoTime() < deadline);
+
+			Assert.assertEquals(51, refreshed.build().getAttack().getLevel());
+			Assert.assertEquals(2, server.getRequestCount());
+		}
+		finally
+		{
+			dispatcher.release();
+			hiscores.shutdown();
+		}
+	}
+
+	@Test
+	public void testHostPermitTimeout() throws Exception
+	{
+		BlockingDispatcher dispatcher = new BlockingDispatcher();
+		dispatcher.block();
+		server.setDispatcher(dispatcher);
+
+		HiscoreTestService hiscores = new HiscoreTestService(server.url("/"), 1, 100, Ticker.systemTicker());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try
+		{
+			// this lookup holds the only permit until the server responds
+			Future<HiscoreResultBuilder> held = executor.submit(() -> hiscores.lookupUsername("zezima", HiscoreEndpoint.NORMAL));
+			server.takeRequest();
+
+			long start = System.nanoTime();
+			try
+			{
+				hiscores.lookupUsername("lynx titan", HiscoreEndpoint.NORMAL);
+				Assert.fail("lookup should have timed out waiting for a permit");
+			}
+			catch (UncheckedExecutionException ex)
+			{
+				Assert.assertTrue(ex.getCause() instanceof InternalServerErrorException);
+			}
+			Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+			Assert.assertEquals(1, server.getRequestCount());
+
+			dispatcher.release();
+			Assert.assertNotNull(held.get());
+		}
+		finally
+		{
+			dispatcher.release();
+			executor.shutdownNow();
+			hiscores.shutdown();
+		}
+	}
+
 }
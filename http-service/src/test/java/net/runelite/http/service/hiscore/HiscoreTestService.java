@@ -25,8 +25,7 @@
  */
 package net.runelite.http.service.hiscore;
 
-import java.io.IOException;
-import java.util.concurrent.ExecutionException;
+import com.google.common.base.Ticker;
 import net.runelite.http.api.hiscore.HiscoreEndpoint;
 import okhttp3.HttpUrl;
 
@@ -39,16 +38,15 @@ class HiscoreTestService extends HiscoreService
 		this.testUrl = testUrl;
 	}
 
+	HiscoreTestService(HttpUrl testUrl, int maxRequestsPerHost, long permitTimeoutMillis, Ticker ticker)
+	{
+		super(16, maxRequestsPerHost, permitTimeoutMillis, ticker);
+		this.testUrl = testUrl;
+	}
+
 	@Override
-	public HiscoreResultBuilder lookupUsername(String username, HiscoreEndpoint endpoint) throws ExecutionException
+	HttpUrl getHiscoreUrl(HiscoreEndpoint endpoint)
 	{
-		try
-		{
-			return super.lookupUsername(username, testUrl);
-		}
-		catch (IOException e)
-		{
-			throw new ExecutionException(e);
-		}
+		return testUrl;
 	}
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.kc;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class MemoryKillCountStoreTest
+{
+	private static class TestTicker extends Ticker
+	{
+		private long nanos;
+
+		@Override
+		public long read()
+		{
+			return nanos;
+		}
+
+		void advance(long time, TimeUnit unit)
+		{
+			nanos += unit.toNanos(time);
+		}
+	}
+
+	@Test
+	public void testExpiry()
+	{
+		TestTicker ticker = new TestTicker();
+		MemoryKillCountStore store = new MemoryKillCountStore(ticker, 2, TimeUnit.MINUTES, 16);
+
+		store.setKc("Adam", "Zulrah", 42);
+		store.setKc("Adam", "Vorkath", 7);
+		ticker.advance(1, TimeUnit.MINUTES);
+		assertEquals(42, (int) store.getKc("Adam", "Zulrah"));
+
+		// updating a kill count restarts its expiry
+		store.setKc("Adam", "Zulrah", 43);
+		ticker.advance(90, TimeUnit.SECONDS);
+		store.purge();
+		assertEquals(43, (int) store.getKc("Adam", "Zulrah"));
+		assertNull(store.getKc("Adam", "Vorkath"));
+		assertEquals(1, store.size());
+
+		ticker.advance(1, TimeUnit.HOURS);
+		assertNull(store.getKc("Adam", "Zulrah"));
+		store.purge();
+		assertEquals(0, store.size());
+	}
+
+	@Test
+	public void testEviction()
+	{
+		TestTicker ticker = new TestTicker();
+		MemoryKillCountStore store = new MemoryKillCountStore(ticker, 2, TimeUnit.MINUTES, 2);
+
+		store.setKc("Adam", "Zulrah", 1);
+		ticker.advance(1, TimeUnit.SECONDS);
+		store.setKc("Adam", "Vorkath", 2);
+		ticker.advance(1, TimeUnit.SECONDS);
+		store.setKc("Adam", "Cerberus", 3);
+
+		// the kill count closest to expiring is evicted
+		assertEquals(2, store.size());
+		assertNull(store.getKc("Adam", "Zulrah"));
+		assertEquals(2, (int) store.getKc("Adam", "Vorkath"));
+		assertEquals(3, (int) store.getKc("Adam", "Cerberus"));
+	}
+}
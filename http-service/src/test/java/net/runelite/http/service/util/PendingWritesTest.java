@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class PendingWritesTest
+{
+	@Test
+	public void testFlush()
+	{
+		PendingWrites<String, Integer> pending = new PendingWrites<>();
+		pending.put("a", 1);
+		pending.put("a", 2);
+		pending.put("b", 3);
+
+		Map<String, Integer> written = new HashMap<>();
+		assertEquals(2, pending.flush(written::putAll));
+		assertEquals(2, (int) written.get("a"));
+		assertEquals(3, (int) written.get("b"));
+		assertEquals(0, pending.size());
+
+		assertEquals(0, pending.flush(entries -> fail()));
+	}
+
+	@Test
+	public void testFailedFlushRequeues()
+	{
+		PendingWrites<String, Integer> pending = new PendingWrites<>();
+		pending.put("a", 1);
+		pending.put("b", 2);
+
+		try
+		{
+			pending.flush(entries ->
+			{
+				// queued again while the write is running
+				pending.put("a", 3);
+				throw new IllegalStateException();
+			});
+			fail();
+		}
+		catch (IllegalStateException ex)
+		{
+		}
+
+		Map<String, Integer> written = new HashMap<>();
+		assertEquals(2, pending.flush(written::putAll));
+		assertEquals(3, (int) written.get("a"));
+		assertEquals(2, (int) written.get("b"));
+	}
+}
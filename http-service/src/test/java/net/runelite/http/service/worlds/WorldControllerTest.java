@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.worlds;
+
+import java.io.IOException;
+import net.runelite.http.api.worlds.WorldResult;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WorldControllerTest
+{
+	private static final String ETAG = "\"0123456789abcdef\"";
+
+	private final WorldResult worldResult = new WorldResult();
+
+	@Mock
+	private WorldsService worldsService;
+
+	@InjectMocks
+	private WorldController worldController;
+
+	@Before
+	public void before() throws IOException
+	{
+		when(worldsService.getSnapshot()).thenReturn(new WorldsService.Snapshot(worldResult, ETAG));
+	}
+
+	@Test
+	public void testListWorlds() throws IOException
+	{
+		ResponseEntity<WorldResult> response = worldController.listWorlds(null);
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(ETAG, response.getHeaders().getETag());
+		assertSame(worldResult, response.getBody());
+	}
+
+	@Test
+	public void testListWorldsNotModified() throws IOException
+	{
+		ResponseEntity<WorldResult> response = worldController.listWorlds(ETAG);
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertEquals(ETAG, response.getHeaders().getETag());
+		assertNull(response.getBody());
+	}
+
+	@Test
+	public void testListWorldsStaleEtag() throws IOException
+	{
+		ResponseEntity<WorldResult> response = worldController.listWorlds("\"fedcba9876543210\"");
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertSame(worldResult, response.getBody());
+	}
+}
@@ -35,7 +35,9 @@ import okio.Buffer;
 import org.junit.After;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Before;
 import org.junit.Test;
 import org.sql2o.tools.IOUtils;
@@ -45,18 +47,25 @@ public class WorldsServiceTest
 
 	private final MockWebServer server = new MockWebServer();
 
+	private byte[] worldData;
+
 	@Before
 	public void before() throws IOException
 	{
 		InputStream in = WorldsServiceTest.class.getResourceAsStream("worldlist");
-		byte[] worldData = IOUtils.toByteArray(in);
+		worldData = IOUtils.toByteArray(in);
+
+		enqueueWorlds();
 
+		server.start();
+	}
+
+	private void enqueueWorlds()
+	{
 		Buffer buffer = new Buffer();
 		buffer.write(worldData);
 
 		server.enqueue(new MockResponse().setBody(buffer));
-
-		server.start();
 	}
 
 	@After
@@ -79,4 +88,43 @@ public class WorldsServiceTest
 		assertTrue(world.getTypes().contains(WorldType.SKILL_TOTAL));
 	}
 
+	@Test
+	public void testUnchangedWorldsNotParsed() throws Exception
+	{
+		WorldsService worlds = new WorldsService();
+		worlds.setUrl(server.url("/"));
+
+		WorldsService.Snapshot snapshot = worlds.getSnapshot();
+
+		// the same body again keeps the existing snapshot
+		enqueueWorlds();
+		worlds.refresh();
+
+		assertSame(snapshot, worlds.getSnapshot());
+		assertEquals(2, server.getRequestCount());
+	}
+
+	@Test
+	public void testFailedRefreshKeepsSnapshot() throws Exception
+	{
+		WorldsService worlds = new WorldsService();
+		worlds.setUrl(server.url("/"));
+
+		WorldsService.Snapshot snapshot = worlds.getSnapshot();
+
+		server.enqueue(new MockResponse().setResponseCode(500));
+		try
+		{
+			worlds.refresh();
+			fail("refresh should have failed");
+		}
+		catch (IOException ex)
+		{
+			// expected
+		}
+
+		assertSame(snapshot, worlds.getSnapshot());
+		assertEquals(2, server.getRequestCount());
+	}
+
 }
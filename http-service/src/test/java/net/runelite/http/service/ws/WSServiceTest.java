@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.ws;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import net.runelite.http.api.ws.messages.LoginResponse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WSServiceTest
+{
+	/**
+	 * Connection whose sends only complete when told to
+	 */
+	private static class Connection
+	{
+		private final WSService service = new WSService();
+		private final List<String> sent = new ArrayList<>();
+		private final List<SendHandler> handlers = new ArrayList<>();
+
+		Connection()
+		{
+			RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+			doAnswer(invocation ->
+			{
+				sent.add((String) invocation.getArguments()[0]);
+				handlers.add((SendHandler) invocation.getArguments()[1]);
+				return null;
+			}).when(remote).sendText(anyString(), any(SendHandler.class));
+
+			Session session = mock(Session.class);
+			when(session.isOpen()).thenReturn(true);
+			when(session.getAsyncRemote()).thenReturn(remote);
+
+			service.onOpen(session, null);
+		}
+
+		void complete(SendResult result)
+		{
+			handlers.get(handlers.size() - 1).onResult(result);
+		}
+	}
+
+	@Test
+	public void testOneSendInFlight()
+	{
+		Connection connection = new Connection();
+		connection.service.sendText("1");
+		connection.service.sendText("2");
+		connection.service.sendText("3");
+
+		assertEquals(Arrays.asList("1"), connection.sent);
+		assertEquals(2, connection.service.getQueued());
+
+		connection.complete(new SendResult());
+		assertEquals(Arrays.asList("1", "2"), connection.sent);
+		assertEquals(1, connection.service.getQueued());
+
+		connection.complete(new SendResult());
+		connection.complete(new SendResult());
+		assertEquals(Arrays.asList("1", "2", "3"), connection.sent);
+		assertEquals(0, connection.service.getQueued());
+
+		// nothing in flight, so this is sent right away
+		connection.service.sendText("4");
+		assertEquals(Arrays.asList("1", "2", "3", "4"), connection.sent);
+	}
+
+	@Test
+	public void testDropOldestWhenFull()
+	{
+		Connection connection = new Connection();
+		long dropped = SessionManager.getStats().getDropped();
+
+		connection.service.sendText("in flight");
+		for (int i = 0; i <= WSService.MAX_QUEUED; ++i)
+		{
+			connection.service.sendText(Integer.toString(i));
+		}
+
+		assertEquals(WSService.MAX_QUEUED, connection.service.getQueued());
+		assertEquals(dropped + 1, SessionManager.getStats().getDropped());
+
+		for (int i = 0; i < WSService.MAX_QUEUED; ++i)
+		{
+			connection.complete(new SendResult());
+		}
+
+		// the oldest queued message is the one dropped
+		assertEquals(WSService.MAX_QUEUED + 1, connection.sent.size());
+		assertEquals("1", connection.sent.get(1));
+		assertEquals(Integer.toString(WSService.MAX_QUEUED), connection.sent.get(WSService.MAX_QUEUED));
+	}
+
+	@Test
+	public void testFailedSendClearsQueue()
+	{
+		Connection connection = new Connection();
+		connection.service.sendText("1");
+		connection.service.sendText("2");
+		connection.service.sendText("3");
+
+		connection.complete(new SendResult(new IOException()));
+		assertEquals(0, connection.service.getQueued());
+
+		connection.service.sendText("4");
+		assertEquals(Arrays.asList("1", "4"), connection.sent);
+	}
+
+	@Test
+	public void testBroadcastSerializesOnce()
+	{
+		UUID uuid = UUID.randomUUID();
+		Connection first = new Connection();
+		Connection second = new Connection();
+		SessionManager.changeSessionUID(first.service, uuid);
+		SessionManager.changeSessionUID(second.service, uuid);
+
+		try
+		{
+			assertEquals(2, SessionManager.broadcast(uuid, new LoginResponse()));
+			assertEquals(1, first.sent.size());
+			assertSame(first.sent.get(0), second.sent.get(0));
+		}
+		finally
+		{
+			SessionManager.remove(first.service);
+			SessionManager.remove(second.service);
+		}
+
+		assertEquals(0, SessionManager.broadcast(uuid, new LoginResponse()));
+	}
+}
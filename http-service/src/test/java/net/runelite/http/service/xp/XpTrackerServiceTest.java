@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.http.service.xp;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import net.runelite.http.api.xp.XpData;
+import net.runelite.http.service.xp.XpTrackerService.PendingXp;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class XpTrackerServiceTest
+{
+	private static XpData xpData(int attackXp, Instant time)
+	{
+		XpData xpData = new XpData();
+		xpData.setAttack_xp(attackXp);
+		xpData.setTime(time);
+		return xpData;
+	}
+
+	@Test
+	public void testFindChangedSkipsUnchanged()
+	{
+		Instant now = Instant.now();
+		XpData changed = xpData(200, now);
+
+		Map<Integer, XpData> result = XpTrackerService.findChanged(
+			Arrays.asList(new PendingXp("Zezima", xpData(100, now)), new PendingXp("Lynx Titan", changed)),
+			ImmutableMap.of("Zezima", 1, "Lynx Titan", 2),
+			ImmutableMap.of(1, xpData(100, now.minusSeconds(60)), 2, xpData(150, now.minusSeconds(60))));
+
+		assertEquals(1, result.size());
+		assertSame(changed, result.get(2));
+	}
+
+	@Test
+	public void testFindChangedKeepsMostRecent()
+	{
+		Instant now = Instant.now();
+		XpData older = xpData(100, now.minusSeconds(1));
+		XpData newer = xpData(200, now);
+		Map<String, Integer> players = ImmutableMap.of("Zezima", 1, "zezima", 1);
+
+		// the same player under two names, in either order
+		Map<Integer, XpData> result = XpTrackerService.findChanged(
+			Arrays.asList(new PendingXp("Zezima", newer), new PendingXp("zezima", older)),
+			players, Collections.emptyMap());
+		assertEquals(1, result.size());
+		assertSame(newer, result.get(1));
+
+		result = XpTrackerService.findChanged(
+			Arrays.asList(new PendingXp("zezima", older), new PendingXp("Zezima", newer)),
+			players, Collections.emptyMap());
+		assertEquals(1, result.size());
+		assertSame(newer, result.get(1));
+	}
+
+	@Test
+	public void testFindChangedSkipsUnresolved()
+	{
+		Instant now = Instant.now();
+
+		Map<Integer, XpData> result = XpTrackerService.findChanged(
+			Arrays.asList(new PendingXp("Zezima ", xpData(100, now)), new PendingXp("Lynx Titan", xpData(200, now))),
+			ImmutableMap.of("Lynx Titan", 2),
+			Collections.emptyMap());
+
+		assertEquals(1, result.size());
+		assertEquals(200, result.get(2).getAttack_xp());
+	}
+}
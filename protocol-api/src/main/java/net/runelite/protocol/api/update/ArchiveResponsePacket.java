@@ -24,16 +24,25 @@
  */
 package net.runelite.protocol.api.update;
 
-public class ArchiveResponsePacket
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * An archive response. Packets built for encoding carry their contents in
+ * {@link #getData()}, while decoded packets carry a reference counted
+ * {@link #getBuffer()} which is released along with the packet.
+ */
+public class ArchiveResponsePacket implements ReferenceCounted
 {
 	private int index;
 	private int archive;
 	private byte[] data;
+	private ByteBuf buffer;
 
 	@Override
 	public String toString()
 	{
-		return "ArchiveResponsePacket{" + "index=" + index + ", archive=" + archive + ", data=" + data + '}';
+		return "ArchiveResponsePacket{" + "index=" + index + ", archive=" + archive + ", data=" + data + ", buffer=" + buffer + '}';
 	}
 
 	public int getIndex()
@@ -65,4 +74,72 @@ public class ArchiveResponsePacket
 	{
 		this.data = data;
 	}
+
+	public ByteBuf getBuffer()
+	{
+		return buffer;
+	}
+
+	public void setBuffer(ByteBuf buffer)
+	{
+		this.buffer = buffer;
+	}
+
+	@Override
+	public int refCnt()
+	{
+		return buffer != null ? buffer.refCnt() : 1;
+	}
+
+	@Override
+	public ArchiveResponsePacket retain()
+	{
+		if (buffer != null)
+		{
+			buffer.retain();
+		}
+		return this;
+	}
+
+	@Override
+	public ArchiveResponsePacket retain(int increment)
+	{
+		if (buffer != null)
+		{
+			buffer.retain(increment);
+		}
+		return this;
+	}
+
+	@Override
+	public ArchiveResponsePacket touch()
+	{
+		if (buffer != null)
+		{
+			buffer.touch();
+		}
+		return this;
+	}
+
+	@Override
+	public ArchiveResponsePacket touch(Object hint)
+	{
+		if (buffer != null)
+		{
+			buffer.touch(hint);
+		}
+		return this;
+	}
+
+	@Override
+	public boolean release()
+	{
+		return buffer != null && buffer.release();
+	}
+
+	@Override
+	public boolean release(int decrement)
+	{
+		return buffer != null && buffer.release(decrement);
+	}
 }
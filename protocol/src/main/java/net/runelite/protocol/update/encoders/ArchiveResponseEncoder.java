@@ -25,7 +25,6 @@
 package net.runelite.protocol.update.encoders;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import net.runelite.protocol.api.update.ArchiveResponsePacket;
@@ -40,47 +39,62 @@ public class ArchiveResponseEncoder extends MessageToByteEncoder<ArchiveResponse
 
 	@Override
 	protected void encode(ChannelHandlerContext ctx, ArchiveResponsePacket archiveResponse, ByteBuf out) throws Exception
+	{
+		int pos = out.readableBytes();
+
+		encode(archiveResponse.getIndex(), archiveResponse.getArchive(), archiveResponse.getData(), out);
+
+		int size = out.readableBytes() - pos;
+		logger.debug("Wrote index {} archive {} (size {}) in {} bytes",
+			archiveResponse.getIndex(), archiveResponse.getArchive(),
+			archiveResponse.getData().length, size);
+	}
+
+	/**
+	 * Write a framed archive response
+	 *
+	 * @param index index id
+	 * @param archive archive id
+	 * @param data compressed archive data, starting with the compression type and length
+	 * @param out buffer to write to
+	 */
+	public static void encode(int index, int archive, byte[] data, ByteBuf out)
 	{
 		// archive file header
 		// 1 byte index
 		// 2 byte archive
-		out.writeByte(archiveResponse.getIndex());
-		out.writeShort(archiveResponse.getArchive());
-
-		int pos = out.readableBytes();
+		out.writeByte(index);
+		out.writeShort(archive);
 
 		// next is the compressed data which starts with compression
 		// type and length
-		ByteBuf file = Unpooled.wrappedBuffer(archiveResponse.getData());
 		// - 3 for the header
-		int chunkSize = Math.min(file.readableBytes(), CHUNK_SIZE - 3);
-
-		writeChunk(file.readBytes(chunkSize), out);
+		int chunkSize = Math.min(data.length, CHUNK_SIZE - 3);
+		out.writeBytes(data, 0, chunkSize);
 
-		while (file.isReadable())
+		for (int pos = chunkSize; pos < data.length; pos += chunkSize)
 		{
 			out.writeByte(0xff);
 
-			chunkSize = Math.min(file.readableBytes(), CHUNK_SIZE - 1);
-			writeChunk(file.readBytes(chunkSize), out);
+			chunkSize = Math.min(data.length - pos, CHUNK_SIZE - 1);
+			out.writeBytes(data, pos, chunkSize);
 		}
-
-		int size = out.readableBytes() - pos;
-		logger.debug("Wrote index {} archive {} (size {}) in {} bytes",
-			archiveResponse.getIndex(), archiveResponse.getArchive(),
-			archiveResponse.getData().length, size);
 	}
 
-	private void writeChunk(ByteBuf chunk, ByteBuf out)
+	/**
+	 * Compute the size of a framed archive response
+	 *
+	 * @param length length of the compressed archive data
+	 * @return size of the response written by {@link #encode(int, int, byte[], ByteBuf)}
+	 */
+	public static int encodedSize(int length)
 	{
-		try
+		int size = 3 + length;
+		if (length > CHUNK_SIZE - 3)
 		{
-			out.writeBytes(chunk);
-		}
-		finally
-		{
-			chunk.release();
+			// one chunk marker for each chunk after the first
+			size += (length - (CHUNK_SIZE - 3) + (CHUNK_SIZE - 2)) / (CHUNK_SIZE - 1);
 		}
+		return size;
 	}
-
 }
@@ -26,6 +26,7 @@ package net.runelite.protocol.update.encoders;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 public class XorEncoder extends MessageToByteEncoder<ByteBuf>
@@ -42,6 +43,19 @@ public class XorEncoder extends MessageToByteEncoder<ByteBuf>
 		this.key = key;
 	}
 
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception
+	{
+		if (key == 0 && msg instanceof ByteBuf)
+		{
+			// nothing to encode, so pass the buffer through without copying it
+			ctx.write(msg, promise);
+			return;
+		}
+
+		super.write(ctx, msg, promise);
+	}
+
 	@Override
 	protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception
 	{
@@ -26,8 +26,7 @@ package net.runelite.protocol.update.encoders;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import java.util.ArrayList;
-import java.util.List;
+import io.netty.channel.embedded.EmbeddedChannel;
 import java.util.Random;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.jagex.CompressionType;
@@ -58,19 +57,65 @@ public class ArchiveResponseEncoderTest
 		ArchiveResponseEncoder encoder = new ArchiveResponseEncoder();
 		encoder.encode(null, archiveResponse, buf);
 
-		ArchiveResponseDecoder decoder = new ArchiveResponseDecoder();
-		List<Object> out = new ArrayList<>();
-		decoder.decode(null, buf, out);
+		EmbeddedChannel channel = new EmbeddedChannel(new ArchiveResponseDecoder());
+		channel.writeInbound(buf);
 
-		Assert.assertEquals(1, out.size());
-		ArchiveResponsePacket response = (ArchiveResponsePacket) out.get(0);
+		ArchiveResponsePacket response = channel.readInbound();
+		Assert.assertNotNull(response);
+		Assert.assertNull(channel.readInbound());
 
 		Assert.assertEquals(archiveResponse.getIndex(), response.getIndex());
 		Assert.assertEquals(archiveResponse.getArchive(), response.getArchive());
-		Assert.assertArrayEquals(archiveResponse.getData(), response.getData());
 
-		byte[] decompressedData = Container.decompress(response.getData(), null).data;
+		byte[] responseData = new byte[response.getBuffer().readableBytes()];
+		response.getBuffer().readBytes(responseData);
+		Assert.assertTrue(response.release());
+		Assert.assertArrayEquals(archiveResponse.getData(), responseData);
+
+		byte[] decompressedData = Container.decompress(responseData, null).data;
 		Assert.assertArrayEquals(data, decompressedData);
 	}
 
+	@Test
+	public void testDecodeFragmented() throws Exception
+	{
+		byte[] data = new byte[3000];
+		Random random = new Random(42L);
+		random.nextBytes(data);
+
+		Container container = new Container(CompressionType.NONE, -1);
+		container.compress(data, null);
+		byte[] compressedData = container.data;
+
+		EmbeddedChannel channel = new EmbeddedChannel(new ArchiveResponseDecoder());
+
+		ByteBuf buf = Unpooled.buffer();
+		ArchiveResponseEncoder.encode(2, 0, compressedData, buf);
+		ArchiveResponseEncoder.encode(2, 1, compressedData, buf);
+
+		// deliver both responses in small, uneven pieces
+		while (buf.isReadable())
+		{
+			int length = Math.min(buf.readableBytes(), 1 + random.nextInt(100));
+			channel.writeInbound(buf.readBytes(length));
+		}
+		buf.release();
+
+		for (int i = 0; i < 2; ++i)
+		{
+			ArchiveResponsePacket response = channel.readInbound();
+			Assert.assertNotNull(response);
+			Assert.assertEquals(2, response.getIndex());
+			Assert.assertEquals(i, response.getArchive());
+
+			byte[] responseData = new byte[response.getBuffer().readableBytes()];
+			response.getBuffer().readBytes(responseData);
+			response.release();
+
+			Assert.assertArrayEquals(compressedData, responseData);
+		}
+
+		Assert.assertNull(channel.readInbound());
+		Assert.assertFalse(channel.finish());
+	}
 }
@@ -27,13 +27,10 @@ package net.runelite.client.game;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.eventbus.Subscribe;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -50,7 +47,7 @@ import net.runelite.api.SpritePixels;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.http.api.item.ItemClient;
-import net.runelite.http.api.item.ItemPrice;
+import net.runelite.http.api.item.ItemPriceSnapshot;
 import net.runelite.http.api.item.SearchResult;
 
 @Singleton
@@ -79,7 +76,7 @@ public class ItemManager
 
 	private final ItemClient itemClient = new ItemClient();
 	private final LoadingCache<String, SearchResult> itemSearches;
-	private Map<Integer, ItemPrice> itemPrices = Collections.emptyMap();
+	private volatile ItemPriceSnapshot itemPrices;
 	private final LoadingCache<ImageKey, AsyncBufferedImage> itemImages;
 	private final LoadingCache<Integer, ItemComposition> itemCompositions;
 	private final LoadingCache<OutlineKey, BufferedImage> itemOutlines;
@@ -146,18 +143,29 @@ public class ItemManager
 	{
 		try
 		{
-			ItemPrice[] prices = itemClient.getPrices();
-			if (prices != null)
+			ItemPriceSnapshot prices = itemPrices;
+			if (prices == null)
+			{
+				prices = itemClient.getPriceSnapshot();
+			}
+			else
 			{
-				ImmutableMap.Builder<Integer, ItemPrice> map = ImmutableMap.builderWithExpectedSize(prices.length);
-				for (ItemPrice price : prices)
+				// only fetch prices changed since the last load
+				ItemPriceSnapshot delta = itemClient.getPriceDelta(prices.getVersion());
+				if (delta == null)
 				{
-					map.put(price.getItem().getId(), price);
+					log.debug("Prices are up to date");
+					return;
 				}
-				itemPrices = map.build();
+
+				prices = prices.merge(delta);
 			}
 
-			log.debug("Loaded {} prices", itemPrices.size());
+			if (prices != null)
+			{
+				itemPrices = prices;
+				log.debug("Loaded {} prices", prices.size());
+			}
 		}
 		catch (IOException e)
 		{
@@ -191,14 +199,16 @@ public class ItemManager
 			return 1000;
 		}
 
+		ItemPriceSnapshot prices = itemPrices;
+		if (prices == null)
+		{
+			return 0;
+		}
+
 		int price = 0;
 		for (int mappedID : ItemMapping.map(itemID))
 		{
-			ItemPrice ip = itemPrices.get(mappedID);
-			if (ip != null)
-			{
-				price += ip.getPrice();
-			}
+			price += prices.getPrice(mappedID);
 		}
 
 		return price;